@@ -0,0 +1,64 @@
+import java.util.Arrays;
+
+/**
+ * The class <b>ArrayBoard</b> is the default <b>Board</b>. It keeps
+ * one byte per dot in a single flat array, so a 4000x4000 board only
+ * costs 16 MB and reading a dot never has to follow a reference.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ArrayBoard implements Board {
+
+    private byte[] cells;
+
+    /**
+     * Constructor, creates a board where every dot is covered
+     * and not mined
+     *
+     * @param size The number of dots on the board
+     */
+    public ArrayBoard(int size) {
+        this.cells = new byte[size];
+    }
+
+    /**
+     * Gets the number of dots on the board
+     *
+     * @return The number of dots
+     */
+    public int size() {
+        return this.cells.length;
+    }
+
+    /**
+     * Gets the packed state of a dot
+     *
+     * @param index The index of the dot
+     * @return The state of the dot between 0 and 255
+     */
+    public int get(int index) {
+        return this.cells[index] & 0xFF;
+    }
+
+    /**
+     * Sets the packed state of a dot
+     *
+     * @param index The index of the dot
+     * @param cell The new state of the dot
+     */
+    public void set(int index, int cell) {
+        this.cells[index] = (byte) cell;
+    }
+
+    /**
+     * Sets every dot back to covered and not mined
+     */
+    public void clear() {
+        Arrays.fill(this.cells, (byte) 0);
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * The interface <b>Board</b> is the storage used by the <b>GameModel</b>
+ * to hold the state of every dot of the game. Each dot is packed in a
+ * single byte:
+ * - bits 0 to 3 hold the number of neighbooring mines (0 to 8)
+ * - bit 4 is set if the dot is mined
+ * - bit 5 is set if the dot has been uncovered
+ * - bit 6 is set if the dot has been clicked
+ * - bit 7 is set if the dot is flagged
+ *
+ * A fresh dot is therefore stored as 0 (covered, no mine, no flag).
+ * The dots are indexed row by row, so the dot at (x,y) is stored at
+ * index y * width + x.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public interface Board {
+
+    /**
+     * Bits used to store the state of a dot
+     */
+    public static final int NEIGHBOURS_MASK = 0x0F;
+    public static final int MINED           = 0x10;
+    public static final int UNCOVERED       = 0x20;
+    public static final int CLICKED         = 0x40;
+    public static final int FLAGGED         = 0x80;
+
+    /**
+     * Returns the number of dots stored in this Board.
+     *
+     * @return the number of dots
+     */
+
+    public abstract int size();
+
+    /**
+     * Returns the packed state of the dot at a given index.
+     *
+     * @param index the index of the dot
+     * @return the state of the dot, between 0 and 255
+     */
+
+    public abstract int get( int index );
+
+    /**
+     * Replaces the packed state of the dot at a given index.
+     *
+     * @param index the index of the dot
+     * @param cell the new state of the dot, only the lowest 8 bits are kept
+     */
+
+    public abstract void set( int index, int cell );
+
+    /**
+     * Sets every dot back to 0, covered and not mined.
+     */
+
+    public abstract void clear();
+
+}
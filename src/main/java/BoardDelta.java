@@ -0,0 +1,131 @@
+import java.util.Arrays;
+
+/**
+ * The class <b>BoardDelta</b> lists the dots that changed during a move,
+ * as dot indexes with the packed state they were changed to (see
+ * <b>Board</b>). The model fills it as it changes the dots, so building
+ * it costs nothing more than the changes themselves, and the view or a
+ * solver only has to look at the dots listed.
+ *
+ * A dot changed more than once in a move is listed once per change, the
+ * last one is its current state. When a move changed too much to be
+ * listed (a reset or showing all the mines) the delta is marked as a
+ * full refresh instead.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class BoardDelta {
+
+    private int[] indexes = new int[16];
+    private byte[] states = new byte[16];
+    private int size;
+    private boolean fullRefresh;
+
+    /**
+     * Adds a changed dot
+     *
+     * @param index The index of the dot
+     * @param state The new packed state of the dot
+     */
+    public void add(int index, int state) {
+        if (this.size == this.indexes.length) {
+            this.indexes = Arrays.copyOf(this.indexes, this.size * 2);
+            this.states = Arrays.copyOf(this.states, this.size * 2);
+        }
+        this.indexes[this.size] = index;
+        this.states[this.size] = (byte) state;
+        this.size++;
+    }
+
+    /**
+     * Adds all the changes of another delta after the changes of this one
+     *
+     * @param other The delta to add
+     */
+    public void addAll(BoardDelta other) {
+        if (other.fullRefresh) {
+            this.fullRefresh = true;
+        }
+        for (int k = 0; k < other.size; k++) {
+            this.add(other.indexes[k], other.getState(k));
+        }
+    }
+
+    /**
+     * Gets the number of changes
+     *
+     * @return The number of changes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the dot of a change
+     *
+     * @param k The number of the change
+     * @return The index of the dot
+     */
+    public int getIndex(int k) {
+        return this.indexes[k];
+    }
+
+    /**
+     * Gets the new state of the dot of a change
+     *
+     * @param k The number of the change
+     * @return The packed state of the dot
+     */
+    public int getState(int k) {
+        return this.states[k] & 0xFF;
+    }
+
+    /**
+     * Changes the new state of the dot of a change, used to keep only
+     * the last state of a dot changed again
+     *
+     * @param k The number of the change
+     * @param state The new packed state of the dot
+     */
+    public void setState(int k, int state) {
+        this.states[k] = (byte) state;
+    }
+
+    /**
+     * Marks the delta as needing every dot to be looked at again
+     */
+    public void setFullRefresh() {
+        this.fullRefresh = true;
+    }
+
+    /**
+     * Checks if every dot must be looked at again
+     *
+     * @return True if the whole board changed
+     */
+    public boolean isFullRefresh() {
+        return this.fullRefresh;
+    }
+
+    /**
+     * Checks if nothing changed
+     *
+     * @return True if there are no changes
+     */
+    public boolean isEmpty() {
+        return this.size == 0 && !this.fullRefresh;
+    }
+
+    /**
+     * Removes all the changes, the memory is kept for the next move
+     */
+    public void clear() {
+        this.size = 0;
+        this.fullRefresh = false;
+    }
+}
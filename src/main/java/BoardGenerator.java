@@ -0,0 +1,319 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class <b>BoardGenerator</b> hides the mines in a <b>Board</b> and
+ * computes the number of neighbooring mines of every dot.
+ *
+ * The mines are placed with Floyd's sampling algorithm, which picks
+ * exactly the wanted number of distinct dots with one random number per
+ * dot, so the time only depends on the number of mines and not on how
+ * full the board already is. When more than half the board is mined the
+ * generator starts from a fully mined board and picks the safe dots
+ * instead. The neighbooring mines are then counted in one pass over the
+ * board.
+ *
+ * Very large boards can be generated in parallel: the board is cut in
+ * bands of rows, each band gets its share of the mines and its own
+ * random stream split from the seed, and the bands are filled and
+ * counted on a <b>ForkJoinPool</b>. The same seed and band size always
+ * give the same board.
+ *
+ * <b>generate</b> switches to the parallel way by itself from
+ * PARALLEL_THRESHOLD dots. The two ways do not use the random numbers
+ * the same way, so a seed only names a board for one size of board,
+ * the boards of a seed above and below the threshold are not alike.
+ * In the parallel way each band gets a number of mines in proportion to
+ * its size (give or take one) instead of the number falling where it
+ * may. The mines are still spread at random inside each band, but the
+ * board as a whole is a bit more even than a fully uniform draw.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class BoardGenerator {
+
+    /**
+     * Boards with at least this many dots are generated in parallel
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 22;
+
+    /**
+     * Default number of dots in a band of the parallel generation
+     */
+    public static final int DEFAULT_BAND_SIZE = 1 << 18;
+
+    private int width, height;
+    private int[] columnMines;
+
+    /**
+     * Constructor for a generator of boards of a given size
+     *
+     * @param width The width of the boards
+     * @param height The height of the boards
+     */
+    public BoardGenerator(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.columnMines = new int[width];
+    }
+
+    /**
+     * Hides the mines in a board and counts the neighbooring mines.
+     * The board must be cleared before. Boards of at least
+     * PARALLEL_THRESHOLD dots are generated in parallel, with bands of
+     * about DEFAULT_BAND_SIZE dots, so the same seed does not give the
+     * same kind of board above and below the threshold (see the class)
+     *
+     * @param board The board to fill, must hold width*height dots
+     * @param numberOfMines The number of mines to hide
+     * @param random The random numbers to use, the same seed gives
+     *            the same board
+     */
+    public void generate(Board board, int numberOfMines, RandomSource random) {
+        if (this.width * this.height >= PARALLEL_THRESHOLD) {
+            int bandRows = Math.max(1, DEFAULT_BAND_SIZE / this.width);
+            this.generateParallel(board, numberOfMines, random, bandRows);
+            return;
+        }
+
+        placeDots(board, 0, this.width * this.height, numberOfMines, random);
+        countNeighbours(board, 0, this.height, this.columnMines);
+    }
+
+    /**
+     * Hides the mines in a board and counts the neighbooring mines,
+     * using all the threads of the common <b>ForkJoinPool</b>.
+     * The board must be cleared before
+     *
+     * @param board The board to fill, must hold width*height dots
+     * @param numberOfMines The number of mines to hide
+     * @param random The random numbers to use, each band gets a
+     *            stream split from it
+     * @param bandRows The number of rows in each band, at least 1. The
+     *            same seed and band size give the same board
+     * @throws IllegalArgumentException if bandRows is less than 1
+     */
+    public void generateParallel(Board board, int numberOfMines, RandomSource random, int bandRows) {
+        if (bandRows < 1) {
+            throw new IllegalArgumentException("A band needs at least one row: " + bandRows);
+        }
+        int numBands = (this.height + bandRows - 1) / bandRows;
+        int size = this.width * this.height;
+        int[] quotas = new int[numBands];
+        RandomSource[] streams = new RandomSource[numBands];
+
+        // Each band gets its share of the mines, the few left over go
+        // to distinct bands picked at random
+        RandomSource master = random;
+        int given = 0;
+        for (int b = 0; b < numBands; b++) {
+            long bandSize = ((long) this.bandEnd(b, bandRows) - b * bandRows) * this.width;
+            quotas[b] = (int) (bandSize * numberOfMines / size);
+            given += quotas[b];
+        }
+        boolean[] extra = new boolean[numBands];
+        for (int j = numBands - (numberOfMines - given); j < numBands; j++) {
+            int pick = master.nextInt(j + 1);
+            if (extra[pick]) {
+                pick = j;
+            }
+            extra[pick] = true;
+            quotas[pick]++;
+        }
+        for (int b = 0; b < numBands; b++) {
+            streams[b] = master.split();
+        }
+
+        // Mines have to be all placed before any band can be counted
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        pool.invoke(new BandTask(board, bandRows, 0, numBands, quotas, streams));
+        pool.invoke(new BandTask(board, bandRows, 0, numBands, null, null));
+    }
+
+    /**
+     * Gets the row after the last row of a band
+     *
+     * @param band The band number
+     * @param bandRows The number of rows in each band
+     * @return The end row of the band
+     */
+    private int bandEnd(int band, int bandRows) {
+        return Math.min((band + 1) * bandRows, this.height);
+    }
+
+    /**
+     * Places count mines in the range [start, start + length) of the
+     * board, choosing between picking the mines or the safe dots
+     * depending on how dense the range is
+     *
+     * @param board The board to place the mines in
+     * @param start The index of the first dot of the range
+     * @param length The number of dots in the range
+     * @param count The number of mines to place
+     * @param generator The random number generator to use
+     */
+    static void placeDots(Board board, int start, int length, int count, RandomSource generator) {
+        if (count <= length / 2) {
+            placeMines(board, start, length, count, generator);
+        } else {
+            // Dense range, mine everything and pick the safe dots instead
+            for (int i = start; i < start + length; i++) {
+                board.set(i, Board.MINED);
+            }
+            placeSafeDots(board, start, length, length - count, generator);
+        }
+    }
+
+    /**
+     * Mines count distinct dots picked at random in the range
+     * [start, start + length) of the board using Floyd's algorithm.
+     * The dots of the range must not be mined
+     *
+     * @param board The board to place the mines in
+     * @param start The index of the first dot of the range
+     * @param length The number of dots in the range
+     * @param count The number of mines to place
+     * @param generator The random number generator to use
+     */
+    static void placeMines(Board board, int start, int length, int count, RandomSource generator) {
+        for (int j = length - count; j < length; j++) {
+            int pick = start + generator.nextInt(j + 1);
+
+            // If that dot was already picked, j can not have been so take it
+            if ((board.get(pick) & Board.MINED) != 0) {
+                pick = start + j;
+            }
+            board.set(pick, board.get(pick) | Board.MINED);
+        }
+    }
+
+    /**
+     * Removes the mine of count distinct dots picked at random in the
+     * range [start, start + length) of the board using Floyd's algorithm.
+     * The dots of the range must all be mined
+     *
+     * @param board The board to remove the mines from
+     * @param start The index of the first dot of the range
+     * @param length The number of dots in the range
+     * @param count The number of safe dots to make
+     * @param generator The random number generator to use
+     */
+    static void placeSafeDots(Board board, int start, int length, int count, RandomSource generator) {
+        for (int j = length - count; j < length; j++) {
+            int pick = start + generator.nextInt(j + 1);
+
+            if ((board.get(pick) & Board.MINED) == 0) {
+                pick = start + j;
+            }
+            board.set(pick, board.get(pick) & ~Board.MINED);
+        }
+    }
+
+    /**
+     * Gets 1 if a dot is mined and 0 if not, so mines can be added up
+     *
+     * @param cell The packed state of the dot
+     * @return 1 if the dot is mined
+     */
+    private static int isMined(int cell) {
+        return (cell & Board.MINED) != 0 ? 1 : 0;
+    }
+
+    /**
+     * Counts the neighbooring mines of every dot of the rows
+     * [firstRow, endRow). It keeps the number of mines in the three
+     * rows around the current row for each column, so each dot only
+     * needs to add three columns together
+     *
+     * @param board The board with all its mines placed
+     * @param firstRow The first row to count
+     * @param endRow The row after the last row to count
+     * @param columns A buffer of width elements
+     */
+    private void countNeighbours(Board board, int firstRow, int endRow, int[] columns) {
+        for (int y = firstRow; y < endRow; y++) {
+            for (int x = 0; x < this.width; x++) {
+                int sum = 0;
+                for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, this.height - 1); j++) {
+                    sum += isMined(board.get(j * this.width + x));
+                }
+                columns[x] = sum;
+            }
+
+            int row = y * this.width;
+            for (int x = 0; x < this.width; x++) {
+                int cell = board.get(row + x);
+                int count = columns[x] - isMined(cell);
+                if (x > 0) {
+                    count += columns[x - 1];
+                }
+                if (x < this.width - 1) {
+                    count += columns[x + 1];
+                }
+                board.set(row + x, (cell & ~Board.NEIGHBOURS_MASK) | count);
+            }
+        }
+    }
+
+    /**
+     * A fork join task that fills or counts a range of bands. Each band
+     * only writes its own rows. When counting it reads the mines of the
+     * rows next to it, which are not changed anymore at that point
+     */
+    private class BandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 2391730475123987131L;
+        private Board board;
+        private int bandRows, firstBand, endBand;
+        private int[] quotas;
+        private RandomSource[] streams;
+
+        /**
+         * Constructor for a task over the bands [firstBand, endBand)
+         *
+         * @param board The board to generate
+         * @param bandRows The number of rows in each band
+         * @param firstBand The first band of the task
+         * @param endBand The band after the last band of the task
+         * @param quotas The mines of each band, null to count the neighbours
+         * @param streams The random stream of each band, null to count
+         */
+        BandTask(Board board, int bandRows, int firstBand, int endBand,
+                int[] quotas, RandomSource[] streams) {
+            this.board = board;
+            this.bandRows = bandRows;
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+            this.quotas = quotas;
+            this.streams = streams;
+        }
+
+        @Override
+        /**
+         * Splits the range in two until there is a single band left,
+         * then fills or counts that band
+         */
+        protected void compute() {
+            if (this.endBand - this.firstBand > 1) {
+                int middle = (this.firstBand + this.endBand) >>> 1;
+                invokeAll(new BandTask(this.board, this.bandRows, this.firstBand, middle, this.quotas, this.streams),
+                        new BandTask(this.board, this.bandRows, middle, this.endBand, this.quotas, this.streams));
+                return;
+            }
+
+            int firstRow = this.firstBand * this.bandRows;
+            int endRow = bandEnd(this.firstBand, this.bandRows);
+            if (this.quotas != null) {
+                placeDots(this.board, firstRow * width, (endRow - firstRow) * width,
+                        this.quotas[this.firstBand], this.streams[this.firstBand]);
+            } else {
+                countNeighbours(this.board, firstRow, endRow, new int[width]);
+            }
+        }
+    }
+}
@@ -0,0 +1,939 @@
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import javax.swing.AbstractAction;
+import javax.swing.ActionMap;
+import javax.swing.InputMap;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * The class <b>BoardPanel</b> is a single component that paints the
+ * whole board itself, instead of having one <b>DotButton</b> per dot.
+ * It only keeps a reference to the model, so it costs the same memory
+ * and starts as fast whatever the size of the board. When painting it
+ * only draws the dots inside the clip, and the dot under the mouse is
+ * found by dividing the coordinates by the size of a dot.
+ *
+ * Put in a <b>JScrollPane</b> it works as a viewport over the board:
+ * Swing only asks it to paint the visible rectangle, so scrolling a
+ * 10000x10000 board costs the same as a small one. The scroll bars
+ * move one dot at a time, the arrow keys, page up and page down pan
+ * the view and home and end go to the sides of the board.
+ *
+ * The board can be zoomed with + and - or with the mouse wheel while
+ * holding control. The icons are drawn down to 7 pixels a dot. Below
+ * that each cell is a colour summing up a block of dots: how much of
+ * it is uncovered, if it has flags and, once the game is lost, if it
+ * has mines. Blocks of 8 dots or more are read from the
+ * <b>SummaryPyramid</b> of the model, so a zoomed out frame only costs
+ * one lookup per pixel. Dots can only be played when they are shown
+ * one by one.
+ *
+ * The board is painted in square tiles kept in a <b>TileCache</b>, so
+ * repainting a part of the board that did not change only draws the
+ * image of its tiles. When the dots are shown one by one, the changed
+ * dots are drawn straight in the cached tiles from the states listed
+ * in the delta, without reading the model. Tiles of blocks of dots are
+ * marked stale instead, and all of them after a full refresh. The
+ * cache is thrown away on a change of zoom.
+ *
+ * The model is changed by the game logic thread while the panel
+ * paints. A tile is only painted from the model under a stamp of
+ * <b>GameModel.startRead</b>. If a move was going on, the tile is not
+ * kept and the stale image, or a covered square when there is none, is
+ * drawn instead, then the panel tries again a frame later. So a half
+ * changed board is never shown or cached.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class BoardPanel extends JPanel implements DeltaListener, Scrollable {
+
+    private static final long serialVersionUID = 4637120934875214412L;
+
+    /**
+     * The size in pixels of a dot, the same as the icons
+     */
+    public static final int DOT_SIZE = 28;
+
+    /**
+     * The pixels of a cell for the first zoom levels, the levels after
+     * them show blocks of 2, 4, 8... dots in a single pixel
+     */
+    private static final int[] ZOOM_PIXELS = { 28, 14, 7, 4, 2, 1 };
+
+    /**
+     * The first zoom level that shows colours instead of icons
+     */
+    private static final int FIRST_SUMMARY_ZOOM = 3;
+
+    /**
+     * The number of cells of a side of a tile with icons, the tiles of
+     * colours are about as many pixels wide as the tiles of full size
+     * icons
+     */
+    private static final int TILE_CELLS = 32;
+
+    /**
+     * Zooming out stops once the board fits in this many pixels
+     */
+    private static final int SMALLEST_BOARD = 256;
+
+    private static final int COVERED_COLOUR = 0x7F7F7F;
+    private static final int UNCOVERED_COLOUR = 0xD8D8D8;
+    private static final int FLAG_COLOUR = 0xE02020;
+    private static final int MINE_COLOUR = 0x000000;
+
+    /**
+     * How long to wait before painting again the tiles that could not
+     * be read because of a move, in milliseconds
+     */
+    private static final int RETRY_DELAY = FrameScheduler.getDelay(FrameScheduler.DEFAULT_RATE);
+
+    /**
+     * The colour of a single dot for each packed state, when the game
+     * is going on and once it is lost
+     */
+    private static final int[] DOT_COLOURS = new int[256];
+    private static final int[] LOST_DOT_COLOURS = new int[256];
+
+    /**
+     * What a dot adds to the counts of its cell for each packed state,
+     * see <b>countCells</b>
+     */
+    private static final int[] DOT_COUNTS = new int[256];
+
+    static {
+        for (int cell = 0; cell < 256; cell++) {
+            int revealed = (cell >> 5) & 1;
+            int mines = (cell >> 4) & 1;
+            int flagged = (cell >> 7) & 1;
+            DOT_COLOURS[cell] = getColour(revealed, flagged, mines, 1, false);
+            LOST_DOT_COLOURS[cell] = getColour(revealed, flagged, mines, 1, true);
+            DOT_COUNTS[cell] = revealed | (flagged << 8) | (mines << 16);
+        }
+    }
+
+    private GameModel model;
+    private int zoom, maxZoom;
+    private BufferedImage summaryImage;
+    private TileCache tiles = new TileCache(TileCache.DEFAULT_BUDGET);
+    private double scale = 1;
+    private int[] cellCounts;
+    private Timer retry;
+
+    /**
+     * Constructor for a panel showing a model
+     *
+     * @param model The model of the game
+     */
+    public BoardPanel(GameModel model) {
+        this.model = model;
+        setOpaque(true);
+
+        // Zoom out until the board fits in a small square
+        int side = Math.max(model.getWidth(), model.getHeigth());
+        this.maxZoom = 0;
+        while ((((side - 1) >> getCellShift(this.maxZoom)) + 1) * getCellPixels(this.maxZoom) > SMALLEST_BOARD) {
+            this.maxZoom++;
+        }
+
+        // The summary is made now if zooming out can need it, once the
+        // game runs the model is only changed by the game logic thread
+        if (getCellShift(this.maxZoom) >= SummaryPyramid.BASE_SHIFT) {
+            model.getSummary();
+        }
+
+        this.retry = new Timer(RETRY_DELAY, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                repaint();
+            }
+        });
+        this.retry.setRepeats(false);
+
+        this.updateSize();
+        this.initKeys();
+        addMouseWheelListener(new MouseWheelListener() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                wheelMoved(e);
+            }
+        });
+    }
+
+    /**
+     * Gets the size in pixels of a cell at a zoom level
+     *
+     * @param zoom The zoom level
+     * @return The pixels of a side of a cell
+     */
+    private static int getCellPixels(int zoom) {
+        return zoom < ZOOM_PIXELS.length ? ZOOM_PIXELS[zoom] : 1;
+    }
+
+    /**
+     * Gets the number of dots of a side of a cell at a zoom level, as
+     * a power of two
+     *
+     * @param zoom The zoom level
+     * @return The log2 of the dots of a side of a cell
+     */
+    private static int getCellShift(int zoom) {
+        return Math.max(0, zoom - ZOOM_PIXELS.length + 1);
+    }
+
+    /**
+     * Sets the size of the panel for the current zoom
+     */
+    private void updateSize() {
+        int shift = getCellShift(this.zoom);
+        int pixels = getCellPixels(this.zoom);
+        setPreferredSize(new Dimension((((this.model.getWidth() - 1) >> shift) + 1) * pixels,
+                (((this.model.getHeigth() - 1) >> shift) + 1) * pixels));
+    }
+
+    /**
+     * Gets the zoom level, 0 shows the icons at their real size
+     *
+     * @return The zoom level
+     */
+    public int getZoom() {
+        return this.zoom;
+    }
+
+    /**
+     * Changes the zoom, keeping the dot under a point of the panel at
+     * the same place on the screen
+     *
+     * @param zoom The new zoom level, kept between 0 and the level
+     *            where the whole board is small
+     * @param anchor The point of the panel that stays in place, null
+     *            for the middle of the view
+     */
+    public void setZoom(int zoom, Point anchor) {
+        zoom = Math.max(0, Math.min(zoom, this.maxZoom));
+        if (zoom == this.zoom) {
+            return;
+        }
+
+        JViewport viewport = getParent() instanceof JViewport ? (JViewport) getParent() : null;
+        Rectangle visible = viewport != null ? viewport.getViewRect() : new Rectangle(0, 0, 0, 0);
+        if (anchor == null) {
+            anchor = new Point(visible.x + visible.width / 2, visible.y + visible.height / 2);
+        }
+
+        // Where the anchor goes once zoomed, in dots then in new pixels
+        double dotsPerPixel = (double) (1 << getCellShift(this.zoom)) / getCellPixels(this.zoom);
+        double newPixelsPerDot = (double) getCellPixels(zoom) / (1 << getCellShift(zoom));
+        int newX = (int) (anchor.x * dotsPerPixel * newPixelsPerDot);
+        int newY = (int) (anchor.y * dotsPerPixel * newPixelsPerDot);
+
+        this.zoom = zoom;
+        this.tiles.clear();
+        this.updateSize();
+        if (viewport != null) {
+            Dimension size = getPreferredSize();
+            Dimension extent = viewport.getExtentSize();
+            viewport.setViewSize(size);
+            int x = newX - (anchor.x - visible.x);
+            int y = newY - (anchor.y - visible.y);
+            x = Math.max(0, Math.min(x, size.width - extent.width));
+            y = Math.max(0, Math.min(y, size.height - extent.height));
+            viewport.setViewPosition(new Point(x, y));
+        }
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Zooms around the mouse when the wheel turns with control held,
+     * otherwise gives the wheel to the scroll pane
+     *
+     * @param e The wheel event
+     */
+    private void wheelMoved(MouseWheelEvent e) {
+        if ((e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) != 0) {
+            this.setZoom(this.zoom + e.getWheelRotation(), e.getPoint());
+            return;
+        }
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+        if (scrollPane != null) {
+            scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+        }
+    }
+
+    /**
+     * Binds the keys used to pan and zoom the view
+     */
+    private void initKeys() {
+        InputMap keys = getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actions = getActionMap();
+        this.bindPan(keys, actions, KeyEvent.VK_LEFT, "panLeft", -1, 0);
+        this.bindPan(keys, actions, KeyEvent.VK_RIGHT, "panRight", 1, 0);
+        this.bindPan(keys, actions, KeyEvent.VK_UP, "panUp", 0, -1);
+        this.bindPan(keys, actions, KeyEvent.VK_DOWN, "panDown", 0, 1);
+        this.bindPan(keys, actions, KeyEvent.VK_PAGE_UP, "pageUp", 0, Integer.MIN_VALUE);
+        this.bindPan(keys, actions, KeyEvent.VK_PAGE_DOWN, "pageDown", 0, Integer.MAX_VALUE);
+
+        // Home and end go all the way to the left or right of the board
+        int boardWidth = this.model.getWidth();
+        this.bindPan(keys, actions, KeyEvent.VK_HOME, "home", -boardWidth, 0);
+        this.bindPan(keys, actions, KeyEvent.VK_END, "end", boardWidth, 0);
+
+        this.bindZoom(keys, actions, KeyEvent.VK_PLUS, "zoomIn", -1);
+        this.bindZoom(keys, actions, KeyEvent.VK_EQUALS, "zoomIn", -1);
+        this.bindZoom(keys, actions, KeyEvent.VK_ADD, "zoomIn", -1);
+        this.bindZoom(keys, actions, KeyEvent.VK_MINUS, "zoomOut", 1);
+        this.bindZoom(keys, actions, KeyEvent.VK_SUBTRACT, "zoomOut", 1);
+    }
+
+    /**
+     * Binds a key to moving the view. A move of Integer.MIN_VALUE or
+     * Integer.MAX_VALUE moves by a whole page
+     *
+     * @param keys The keys of the panel
+     * @param actions The actions of the panel
+     * @param key The key code
+     * @param name The name of the action
+     * @param dx The move in cells along x
+     * @param dy The move in cells along y
+     */
+    private void bindPan(InputMap keys, ActionMap actions, int key, String name, final int dx, final int dy) {
+        keys.put(KeyStroke.getKeyStroke(key, 0), name);
+        actions.put(name, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pan(dx, dy);
+            }
+        });
+    }
+
+    /**
+     * Binds a key to zooming in or out around the middle of the view
+     *
+     * @param keys The keys of the panel
+     * @param actions The actions of the panel
+     * @param key The key code
+     * @param name The name of the action
+     * @param change The change of zoom level, less than 0 zooms in
+     */
+    private void bindZoom(InputMap keys, ActionMap actions, int key, String name, final int change) {
+        keys.put(KeyStroke.getKeyStroke(key, 0), name);
+        actions.put(name, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setZoom(zoom + change, null);
+            }
+        });
+    }
+
+    /**
+     * Moves the view of the scroll pane holding the panel
+     *
+     * @param dx The move in cells along x, Integer.MIN_VALUE or
+     *            Integer.MAX_VALUE for a page
+     * @param dy The move in cells along y, Integer.MIN_VALUE or
+     *            Integer.MAX_VALUE for a page
+     */
+    public void pan(int dx, int dy) {
+        if (!(getParent() instanceof JViewport)) {
+            return;
+        }
+        JViewport viewport = (JViewport) getParent();
+        Rectangle visible = viewport.getViewRect();
+        Dimension extent = viewport.getExtentSize();
+        int pixels = getCellPixels(this.zoom);
+        dx = this.pageMove(dx, pixels, getScrollableBlockIncrement(visible, SwingConstants.HORIZONTAL, 1));
+        dy = this.pageMove(dy, pixels, getScrollableBlockIncrement(visible, SwingConstants.VERTICAL, 1));
+
+        int x = Math.max(0, Math.min(visible.x + dx, getWidth() - extent.width));
+        int y = Math.max(0, Math.min(visible.y + dy, getHeight() - extent.height));
+        viewport.setViewPosition(new Point(x, y));
+    }
+
+    /**
+     * Turns a move in cells into pixels, a move of Integer.MIN_VALUE
+     * or Integer.MAX_VALUE is a move of one page
+     *
+     * @param move The move in cells
+     * @param pixels The size of a cell in pixels
+     * @param page The size of a page in pixels
+     * @return The move in pixels
+     */
+    private int pageMove(int move, int pixels, int page) {
+        if (move == Integer.MIN_VALUE) {
+            return -page;
+        } else if (move == Integer.MAX_VALUE) {
+            return page;
+        }
+        return move * pixels;
+    }
+
+    /**
+     * Gets the column of the dot at a x coordinate of the panel
+     *
+     * @param x The x coordinate in pixels
+     * @return The column, or -1 if it is outside the board or the
+     *         dots are not shown one by one
+     */
+    public int getColumnAt(int x) {
+        if (getCellShift(this.zoom) > 0) {
+            return -1;
+        }
+        int column = x / getCellPixels(this.zoom);
+        if (x < 0 || column >= this.model.getWidth()) {
+            return -1;
+        }
+        return column;
+    }
+
+    /**
+     * Gets the row of the dot at a y coordinate of the panel
+     *
+     * @param y The y coordinate in pixels
+     * @return The row, or -1 if it is outside the board or the dots
+     *         are not shown one by one
+     */
+    public int getRowAt(int y) {
+        if (getCellShift(this.zoom) > 0) {
+            return -1;
+        }
+        int row = y / getCellPixels(this.zoom);
+        if (y < 0 || row >= this.model.getHeigth()) {
+            return -1;
+        }
+        return row;
+    }
+
+    @Override
+    /**
+     * Paints the cells that are inside the clip of the graphics
+     *
+     * @param g The graphics to paint with
+     */
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int shift = getCellShift(this.zoom);
+        int pixels = getCellPixels(this.zoom);
+        int columns = ((this.model.getWidth() - 1) >> shift) + 1;
+        int rows = ((this.model.getHeigth() - 1) >> shift) + 1;
+        int firstColumn = Math.max(0, clip.x / pixels);
+        int firstRow = Math.max(0, clip.y / pixels);
+        int endColumn = Math.min(columns, (clip.x + clip.width + pixels - 1) / pixels);
+        int endRow = Math.min(rows, (clip.y + clip.height + pixels - 1) / pixels);
+        if (firstColumn >= endColumn || firstRow >= endRow) {
+            return;
+        }
+
+        // Tiles are painted at the real pixels of the screen, a change
+        // of screen throws them away
+        double scale = Math.max(1, ((Graphics2D) g).getTransform().getScaleX());
+        if (scale != this.scale) {
+            this.scale = scale;
+            this.tiles.clear();
+        }
+
+        // Draw the tiles over the clip, painting the ones not cached
+        // or stale
+        int tileCells = getTileCells(this.zoom);
+        int tilePixels = tileCells * pixels;
+        int tileSize = (int) Math.ceil(tilePixels * scale);
+        for (int ty = firstRow / tileCells; ty <= (endRow - 1) / tileCells; ty++) {
+            for (int tx = firstColumn / tileCells; tx <= (endColumn - 1) / tileCells; tx++) {
+                long key = TileCache.key(this.zoom, tx, ty);
+                BufferedImage tile = this.tiles.get(key);
+                if (tile == null || this.tiles.isStale(key)) {
+                    tile = this.paintTile(key, tile, tileSize, tx, ty, tileCells, shift, pixels, columns, rows);
+                }
+                if (tile != null) {
+                    g.drawImage(tile, tx * tilePixels, ty * tilePixels, tilePixels, tilePixels, null);
+                } else {
+                    g.setColor(new Color(COVERED_COLOUR));
+                    g.fillRect(tx * tilePixels, ty * tilePixels, tilePixels, tilePixels);
+                }
+            }
+        }
+    }
+
+    /**
+     * Paints a tile from the model and keeps it in the cache, unless a
+     * move changed the model while it was read
+     *
+     * @param key The key of the tile
+     * @param old The stale image of the tile, or null
+     * @param tileSize The size of the image in pixels
+     * @param tileX The column of the tile
+     * @param tileY The row of the tile
+     * @param tileCells The number of cells of a side of a tile
+     * @param shift The log2 of the dots of a side of a cell
+     * @param pixels The size of a cell in pixels
+     * @param columns The number of columns of cells of the board
+     * @param rows The number of rows of cells of the board
+     * @return The image to draw, the stale one if the model could not
+     *         be read, or null if there is nothing to draw
+     */
+    private BufferedImage paintTile(long key, BufferedImage old, int tileSize, int tileX, int tileY,
+            int tileCells, int shift, int pixels, int columns, int rows) {
+        long stamp = this.model.startRead();
+        if (stamp == 0) {
+            this.retry.restart();
+            return old;
+        }
+
+        BufferedImage tile = this.tiles.reuse(tileSize, tileSize);
+        if (tile == null) {
+            tile = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        }
+        try {
+            this.drawTile(tile, tileX, tileY, tileCells, shift, pixels, columns, rows);
+        } catch (RuntimeException e) {
+            // A board read while it changes can make no sense, the
+            // stamp does not match anymore so it is thrown away below
+            stamp = 0;
+        }
+        if (!this.model.validateRead(stamp)) {
+            this.retry.restart();
+            return tile == old ? null : old;
+        }
+        this.tiles.put(key, tile);
+        return tile;
+    }
+
+    /**
+     * Gets the number of cells of a side of a tile at a zoom level
+     *
+     * @param zoom The zoom level
+     * @return The cells of a side of a tile
+     */
+    private static int getTileCells(int zoom) {
+        return Math.max(TILE_CELLS, TILE_CELLS * DOT_SIZE / getCellPixels(zoom));
+    }
+
+    /**
+     * Paints the cells of a tile in its image
+     *
+     * @param tile The image of the tile
+     * @param tileX The column of the tile
+     * @param tileY The row of the tile
+     * @param tileCells The number of cells of a side of a tile
+     * @param shift The log2 of the dots of a side of a cell
+     * @param pixels The size of a cell in pixels
+     * @param columns The number of columns of cells of the board
+     * @param rows The number of rows of cells of the board
+     */
+    private void drawTile(BufferedImage tile, int tileX, int tileY, int tileCells, int shift, int pixels,
+            int columns, int rows) {
+        Graphics2D g = tile.createGraphics();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, tile.getWidth(), tile.getHeight());
+        g.scale(this.scale, this.scale);
+        g.translate(-tileX * tileCells * pixels, -tileY * tileCells * pixels);
+
+        int firstColumn = tileX * tileCells;
+        int firstRow = tileY * tileCells;
+        int endColumn = Math.min(columns, firstColumn + tileCells);
+        int endRow = Math.min(rows, firstRow + tileCells);
+        if (this.zoom < FIRST_SUMMARY_ZOOM) {
+            this.paintIcons(g, pixels, firstColumn, firstRow, endColumn, endRow);
+        } else {
+            this.paintSummary(g, shift, pixels, firstColumn, firstRow, endColumn, endRow);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Changes the memory the cached tiles can take
+     *
+     * @param budget The most memory of the tiles, in bytes
+     */
+    public void setCacheBudget(long budget) {
+        this.tiles.setBudget(budget);
+    }
+
+    /**
+     * Marks all the cached tiles stale and repaints the whole board,
+     * for when the whole board changed
+     */
+    public void refresh() {
+        this.tiles.markAllStale();
+        repaint();
+    }
+
+    /**
+     * Paints the icons of the dots [firstColumn, endColumn) x
+     * [firstRow, endRow), each one copied from the <b>IconAtlas</b>
+     * at the size it takes on the screen
+     *
+     * @param g The graphics to paint with
+     * @param pixels The size of a dot in pixels
+     * @param firstColumn The first column to paint
+     * @param firstRow The first row to paint
+     * @param endColumn The column after the last one to paint
+     * @param endRow The row after the last one to paint
+     */
+    private void paintIcons(Graphics g, int pixels, int firstColumn, int firstRow, int endColumn, int endRow) {
+        boolean lost = this.model.getLose();
+        IconAtlas atlas = IconAtlas.get();
+
+        // All the dots of the tile are the same size, get the icons once
+        BufferedImage sheet = atlas.getSheet((int) Math.round(pixels * this.scale));
+        for (int j = firstRow; j < endRow; j++) {
+            int index = this.model.getIndex(firstColumn, j);
+            for (int i = firstColumn; i < endColumn; i++, index++) {
+                int icon = GameView.getIcon(this.model.getCell(index), lost);
+                atlas.draw(g, sheet, icon, i * pixels, j * pixels, pixels);
+            }
+        }
+    }
+
+    /**
+     * Paints the summary colours of the cells [firstColumn, endColumn)
+     * x [firstRow, endRow) in an image, then draws the image
+     *
+     * @param g The graphics to paint with
+     * @param shift The log2 of the dots of a side of a cell
+     * @param pixels The size of a cell in pixels
+     * @param firstColumn The first column to paint
+     * @param firstRow The first row to paint
+     * @param endColumn The column after the last one to paint
+     * @param endRow The row after the last one to paint
+     */
+    private void paintSummary(Graphics g, int shift, int pixels, int firstColumn, int firstRow,
+            int endColumn, int endRow) {
+        int imageWidth = (endColumn - firstColumn) * pixels;
+        int imageHeight = (endRow - firstRow) * pixels;
+        if (this.summaryImage == null || this.summaryImage.getWidth() < imageWidth
+                || this.summaryImage.getHeight() < imageHeight) {
+            this.summaryImage = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        }
+        int[] data = ((DataBufferInt) this.summaryImage.getRaster().getDataBuffer()).getData();
+        int stride = this.summaryImage.getWidth();
+
+        SummaryPyramid summary = shift >= SummaryPyramid.BASE_SHIFT ? this.model.getSummary() : null;
+        int level = shift - SummaryPyramid.BASE_SHIFT;
+        boolean lost = this.model.getLose();
+        int[] dotColours = lost ? LOST_DOT_COLOURS : DOT_COLOURS;
+        Board board = this.model.getBoard();
+        int width = this.model.getWidth();
+        int height = this.model.getHeigth();
+        for (int j = firstRow; j < endRow; j++) {
+            int[] counts = null;
+            if (shift > 0 && summary == null) {
+                counts = this.countCells(board, j, shift, firstColumn, endColumn);
+            }
+            for (int i = firstColumn; i < endColumn; i++) {
+                int colour;
+                if (shift == 0) {
+                    colour = dotColours[board.get(j * width + i)];
+                } else if (summary != null) {
+                    colour = getColour(summary.getRevealed(level, i, j), summary.getFlagged(level, i, j),
+                            summary.getMines(level, i, j), summary.getDots(level, i, j), lost);
+                } else {
+                    int count = counts[i - firstColumn];
+                    int dots = (Math.min((i + 1) << shift, width) - (i << shift))
+                            * (Math.min((j + 1) << shift, height) - (j << shift));
+                    colour = getColour(count & 0xFF, (count >> 8) & 0xFF, count >> 16, dots, lost);
+                }
+
+                int start = (j - firstRow) * pixels * stride + (i - firstColumn) * pixels;
+                for (int y = 0; y < pixels; y++) {
+                    int row = start + y * stride;
+                    for (int x = 0; x < pixels; x++) {
+                        data[row + x] = colour;
+                    }
+                }
+            }
+        }
+
+        int x = firstColumn * pixels;
+        int y = firstRow * pixels;
+        g.drawImage(this.summaryImage, x, y, x + imageWidth, y + imageHeight, 0, 0, imageWidth, imageHeight, null);
+    }
+
+    /**
+     * Counts the dots of a row of cells smaller than the blocks of the
+     * <b>SummaryPyramid</b>, going through the dots one row at a time.
+     * The counts of each cell are packed in one int as uncovered dots,
+     * flags shifted by 8 and mines shifted by 16
+     *
+     * @param board The board
+     * @param row The row of cells
+     * @param shift The log2 of the dots of a side of a cell
+     * @param firstColumn The first column of cells
+     * @param endColumn The column after the last column of cells
+     * @return The counts of the cells, from firstColumn
+     */
+    private int[] countCells(Board board, int row, int shift, int firstColumn, int endColumn) {
+        int cells = endColumn - firstColumn;
+        if (this.cellCounts == null || this.cellCounts.length < cells) {
+            this.cellCounts = new int[cells];
+        }
+        Arrays.fill(this.cellCounts, 0, cells, 0);
+
+        int width = this.model.getWidth();
+        int firstX = firstColumn << shift;
+        int endX = Math.min(endColumn << shift, width);
+        int endY = Math.min((row + 1) << shift, this.model.getHeigth());
+        for (int y = row << shift; y < endY; y++) {
+            int index = y * width + firstX;
+            for (int x = firstX; x < endX; x++, index++) {
+                this.cellCounts[(x >> shift) - firstColumn] += DOT_COUNTS[board.get(index)];
+            }
+        }
+        return this.cellCounts;
+    }
+
+    /**
+     * Gets the colour summing up a block of dots. It goes from grey to
+     * light grey as the block is uncovered, turns red when it holds
+     * flags and black when it holds mines at the end of a lost game
+     *
+     * @param revealed The number of uncovered dots
+     * @param flagged The number of flags
+     * @param mines The number of mines
+     * @param dots The number of dots in the block
+     * @param lost True if the game is lost
+     * @return The colour as 0xRRGGBB
+     */
+    private static int getColour(int revealed, int flagged, int mines, int dots, boolean lost) {
+        int colour = blend(COVERED_COLOUR, UNCOVERED_COLOUR, revealed, dots);
+        if (flagged > 0) {
+            colour = blend(colour, FLAG_COLOUR, dots + flagged, 2 * dots);
+        }
+        if (lost && mines > 0) {
+            colour = blend(colour, MINE_COLOUR, dots + mines, 2 * dots);
+        }
+        return colour;
+    }
+
+    /**
+     * Mixes two colours
+     *
+     * @param from The colour when the part is 0
+     * @param to The colour when the part is the whole
+     * @param part The part of the second colour
+     * @param whole The whole
+     * @return The mixed colour as 0xRRGGBB
+     */
+    private static int blend(int from, int to, int part, int whole) {
+        int r = ((from >> 16) & 0xFF) + (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * part / whole;
+        int g = ((from >> 8) & 0xFF) + (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * part / whole;
+        int b = (from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * part / whole;
+        return (r << 16) | (g << 8) | b;
+    }
+
+    @Override
+    /**
+     * Repaints the dots that changed, or the whole board for a full
+     * refresh
+     *
+     * @param gameModel The model that changed
+     * @param delta The dots that changed
+     */
+    public void boardChanged(GameModel gameModel, BoardDelta delta) {
+        if (delta.isFullRefresh()) {
+            this.refresh();
+            return;
+        }
+
+        // Draw the changes in the cached tiles, or mark the tiles stale
+        // when their cells are blocks of dots, then one repaint around
+        // all of them, Swing only paints the part of it that is visible
+        int width = this.model.getWidth();
+        int tileShift = getCellShift(this.zoom);
+        int tileCells = getTileCells(this.zoom);
+        long lastKey = -1;
+        Graphics2D tileGraphics = null;
+        boolean lost = this.model.getLose();
+        BufferedImage sheet = null;
+        if (this.zoom < FIRST_SUMMARY_ZOOM) {
+            sheet = IconAtlas.get().getSheet((int) Math.round(getCellPixels(this.zoom) * this.scale));
+        }
+        int firstColumn = Integer.MAX_VALUE, firstRow = Integer.MAX_VALUE;
+        int lastColumn = -1, lastRow = -1;
+        for (int k = 0; k < delta.size(); k++) {
+            int index = delta.getIndex(k);
+            int column = index % width;
+            int row = index / width;
+            long key = TileCache.key(this.zoom, (column >> tileShift) / tileCells, (row >> tileShift) / tileCells);
+            if (key != lastKey) {
+                if (tileGraphics != null) {
+                    tileGraphics.dispose();
+                    tileGraphics = null;
+                }
+                if (tileShift > 0) {
+                    this.tiles.markStale(key);
+                } else {
+                    tileGraphics = this.getTileGraphics(key, column / tileCells, row / tileCells, tileCells);
+                }
+                lastKey = key;
+            }
+            if (tileGraphics != null) {
+                this.drawDot(tileGraphics, sheet, column, row, delta.getState(k), lost);
+            }
+            firstColumn = Math.min(firstColumn, column);
+            lastColumn = Math.max(lastColumn, column);
+            firstRow = Math.min(firstRow, row);
+            lastRow = Math.max(lastRow, row);
+        }
+        if (tileGraphics != null) {
+            tileGraphics.dispose();
+        }
+        if (lastColumn >= 0) {
+            int shift = getCellShift(this.zoom);
+            int pixels = getCellPixels(this.zoom);
+            repaint((firstColumn >> shift) * pixels, (firstRow >> shift) * pixels,
+                    ((lastColumn >> shift) - (firstColumn >> shift) + 1) * pixels,
+                    ((lastRow >> shift) - (firstRow >> shift) + 1) * pixels);
+        }
+    }
+
+    /**
+     * Gets graphics drawing in the cached image of a tile of single
+     * dots, placed like when the tile is painted
+     *
+     * @param key The key of the tile
+     * @param tileX The column of the tile
+     * @param tileY The row of the tile
+     * @param tileCells The number of cells of a side of a tile
+     * @return The graphics, or null if the tile is not cached or stale
+     */
+    private Graphics2D getTileGraphics(long key, int tileX, int tileY, int tileCells) {
+        BufferedImage tile = this.tiles.get(key);
+        if (tile == null || this.tiles.isStale(key)) {
+            return null;
+        }
+        int pixels = getCellPixels(this.zoom);
+        Graphics2D g = tile.createGraphics();
+        g.scale(this.scale, this.scale);
+        g.translate(-tileX * tileCells * pixels, -tileY * tileCells * pixels);
+        return g;
+    }
+
+    /**
+     * Draws one dot in a tile from its state in a delta, as its icon or
+     * as its colour depending on the zoom
+     *
+     * @param g The graphics of the tile
+     * @param sheet The icons at the size of the screen, null to draw
+     *            the colours
+     * @param column The column of the dot
+     * @param row The row of the dot
+     * @param cell The packed state of the dot
+     * @param lost True if the game is lost
+     */
+    private void drawDot(Graphics2D g, BufferedImage sheet, int column, int row, int cell, boolean lost) {
+        int pixels = getCellPixels(this.zoom);
+        if (sheet != null) {
+            IconAtlas.get().draw(g, sheet, GameView.getIcon(cell, lost), column * pixels, row * pixels, pixels);
+        } else {
+            g.setColor(new Color((lost ? LOST_DOT_COLOURS : DOT_COLOURS)[cell]));
+            g.fillRect(column * pixels, row * pixels, pixels, pixels);
+        }
+    }
+
+    @Override
+    /**
+     * Gets the size of the scroll pane view, the whole board if it fits
+     * on the screen
+     *
+     * @return The size of the view
+     */
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension board = getPreferredSize();
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        return new Dimension(Math.min(board.width, screen.width * 3 / 4),
+                Math.min(board.height, screen.height * 3 / 4));
+    }
+
+    @Override
+    /**
+     * Scrolls to the next cell
+     *
+     * @param visible The visible rectangle
+     * @param orientation Which way it scrolls
+     * @param direction Less than 0 to go up or left
+     * @return The number of pixels to scroll
+     */
+    public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+        int pixels = getCellPixels(this.zoom);
+        int position = orientation == SwingConstants.HORIZONTAL ? visible.x : visible.y;
+        int offset = position % pixels;
+        if (direction < 0) {
+            return offset == 0 ? pixels : offset;
+        }
+        return pixels - offset;
+    }
+
+    @Override
+    /**
+     * Scrolls by the visible size minus one cell, so a cell of the last
+     * page is still shown
+     *
+     * @param visible The visible rectangle
+     * @param orientation Which way it scrolls
+     * @param direction Less than 0 to go up or left
+     * @return The number of pixels to scroll
+     */
+    public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+        int pixels = getCellPixels(this.zoom);
+        int size = orientation == SwingConstants.HORIZONTAL ? visible.width : visible.height;
+        return Math.max(pixels, size - pixels);
+    }
+
+    @Override
+    /**
+     * The board keeps its size, the scroll pane does not stretch it
+     *
+     * @return false
+     */
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    /**
+     * The board keeps its size, the scroll pane does not stretch it
+     *
+     * @return false
+     */
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -0,0 +1,284 @@
+import java.util.ArrayDeque;
+
+/**
+ * The class <b>BoardPool</b> keeps a few boards generated in advance so
+ * that <b>GameModel.reset</b> only has to swap in a ready board instead
+ * of generating one on the Swing event thread.
+ *
+ * A background thread generates the boards that come after the current
+ * one, in the same order of seeds as the model would, so a pooled board
+ * is exactly the board the model would have generated itself. When the
+ * size of the game changes the boards already in the pool are thrown
+ * away. The boards replaced by a reset are given back to the pool and
+ * cleared to be used again, so back to back games do not allocate new
+ * boards.
+ *
+ * Memory: the pool holds at most <b>depth</b> boards next to the one
+ * being played, counting the ready boards, the spares and the board
+ * being generated. Ready boards keep their <b>ZoneIndex</b> (about 2
+ * bytes per dot), spares do not. Boards of more than MAX_DOTS dots are
+ * not pooled at all (see <b>GameModel.setPoolDepth</b>), so with the
+ * default depth the pool takes at most about 24 MB.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class BoardPool {
+
+    public static final int DEFAULT_DEPTH = 2;
+
+    /**
+     * Boards with more dots than this are not pooled, a few copies of
+     * them would take too much memory
+     */
+    public static final int MAX_DOTS = 1 << 22;
+
+    private int width, height, numberOfMines, depth;
+    private RandomSource random;
+    private BoardGenerator boardGenerator;
+    private long nextSeed, workingSeed;
+    private int version;
+    private boolean working, stopped;
+    private ArrayDeque<ReadyBoard> ready;
+    private ArrayDeque<ReadyBoard> spares;
+    private Thread worker;
+
+    /**
+     * Constructor, starts the background thread. The pool stays empty
+     * until <b>configure</b> is called
+     *
+     * @param depth The number of boards to keep ready
+     */
+    public BoardPool(int depth) {
+        this.depth = depth;
+        this.ready = new ArrayDeque<ReadyBoard>();
+        this.spares = new ArrayDeque<ReadyBoard>();
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                BoardPool.this.work();
+            }
+        }, "board-pool");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Sets the kind of boards to generate. If it is not the same as
+     * before, the boards already generated are thrown away
+     *
+     * @param width The width of the boards
+     * @param height The height of the boards
+     * @param numberOfMines The number of mines of the boards
+     * @param random The kind of random numbers to use
+     * @param firstSeed The seed of the first board to generate
+     */
+    public synchronized void configure(int width, int height, int numberOfMines,
+            RandomSource random, long firstSeed) {
+        if (width != this.width || height != this.height
+                || numberOfMines != this.numberOfMines || random != this.random) {
+            this.width = width;
+            this.height = height;
+            this.numberOfMines = numberOfMines;
+            this.random = random;
+            this.boardGenerator = new BoardGenerator(width, height);
+            this.spares.clear();
+        }
+        this.restart(firstSeed);
+    }
+
+    /**
+     * Changes the number of boards kept ready
+     *
+     * @param depth The number of boards
+     */
+    public synchronized void setDepth(int depth) {
+        this.depth = depth;
+        while (this.ready.size() > depth) {
+            this.ready.removeLast();
+        }
+        while (!this.spares.isEmpty() && this.ready.size() + this.spares.size() > depth) {
+            this.spares.removeLast();
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Takes the ready board of a given seed out of the pool, with the
+     * <b>ZoneIndex</b> of its blank regions. If the background thread is
+     * generating that board it waits for it. The pool then goes on with
+     * the boards that follow.
+     *
+     * @param width The width of the wanted board
+     * @param height The height of the wanted board
+     * @param numberOfMines The number of mines of the wanted board
+     * @param seed The seed of the wanted board
+     *
+     * @return The board, or null if the pool did not have it
+     */
+    public synchronized ReadyBoard take(int width, int height, int numberOfMines, long seed) {
+        if (width != this.width || height != this.height || numberOfMines != this.numberOfMines) {
+            return null;
+        }
+
+        while (this.ready.isEmpty() && this.working && this.workingSeed == seed) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        ReadyBoard head = this.ready.peekFirst();
+        if (head == null || head.seed != seed) {
+            // Not the expected board, start again after the one asked for
+            this.restart(GameModel.nextSeed(seed));
+            return null;
+        }
+
+        this.ready.removeFirst();
+        this.notifyAll();
+        return head;
+    }
+
+    /**
+     * Gives back a board that is not used anymore, it is cleared and
+     * used again for one of the next boards
+     *
+     * @param board The board that is not used anymore
+     * @param zones The index of the board, can be null
+     */
+    public synchronized void recycle(Board board, ZoneIndex zones) {
+        this.recycle(new ReadyBoard(board, zones, 0));
+    }
+
+    /**
+     * Keeps a board that is not used anymore as a spare if it has the
+     * right size and there is room. The spares count in the depth with
+     * the ready boards and the board being generated. Its index is
+     * dropped, only the board is kept
+     *
+     * @param spare The board that is not used anymore
+     */
+    private void recycle(ReadyBoard spare) {
+        int held = this.ready.size() + this.spares.size() + (this.working ? 1 : 0);
+        if (spare.board.size() == this.width * this.height && held < this.depth) {
+            spare.zones = null;
+            this.spares.addLast(spare);
+        }
+    }
+
+    /**
+     * Stops the background thread and empties the pool
+     */
+    public synchronized void shutdown() {
+        this.stopped = true;
+        this.ready.clear();
+        this.spares.clear();
+        this.notifyAll();
+    }
+
+    /**
+     * Throws away the ready boards and starts generating from a seed
+     *
+     * @param firstSeed The seed of the next board to generate
+     */
+    private void restart(long firstSeed) {
+        this.version++;
+        while (!this.ready.isEmpty()) {
+            this.recycle(this.ready.removeFirst());
+        }
+        this.nextSeed = firstSeed;
+        this.notifyAll();
+    }
+
+    /**
+     * The loop of the background thread, it generates boards until
+     * the pool is full then waits for one to be taken
+     */
+    private void work() {
+        while (true) {
+            int w, h, mines, startVersion;
+            long seed;
+            RandomSource source;
+            BoardGenerator gen;
+            ReadyBoard spare;
+
+            synchronized (this) {
+                while (!this.stopped && (this.boardGenerator == null || this.ready.size() >= this.depth)) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (this.stopped) {
+                    return;
+                }
+                w = this.width;
+                h = this.height;
+                mines = this.numberOfMines;
+                source = this.random;
+                gen = this.boardGenerator;
+                seed = this.nextSeed;
+                startVersion = this.version;
+                this.workingSeed = seed;
+                this.working = true;
+                spare = this.spares.pollFirst();
+            }
+
+            // Use a given back board if there is one
+            if (spare == null) {
+                spare = new ReadyBoard(new ArrayBoard(w * h), null, seed);
+            } else {
+                spare.board.clear();
+                spare.seed = seed;
+            }
+            gen.generate(spare.board, mines, source.withSeed(seed));
+            if (w * h <= ZoneIndex.MAX_SIZE) {
+                spare.zones = new ZoneIndex();
+                spare.zones.build(spare.board, w, h);
+            }
+
+            synchronized (this) {
+                this.working = false;
+                if (startVersion == this.version) {
+                    this.ready.addLast(spare);
+                    this.nextSeed = GameModel.nextSeed(seed);
+                } else {
+                    this.recycle(spare);
+                }
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A generated board, the index of its blank regions and the seed
+     * it was generated from
+     */
+    static class ReadyBoard {
+
+        Board board;
+        ZoneIndex zones;
+        long seed;
+
+        /**
+         * Constructor
+         *
+         * @param board The generated board
+         * @param zones The index of the board, null if it has none
+         * @param seed The seed of the board
+         */
+        ReadyBoard(Board board, ZoneIndex zones, long seed) {
+            this.board = board;
+            this.zones = zones;
+            this.seed = seed;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * A <b>DeltaListener</b> is told about the dots that changed after each
+ * move of the game, so it can update itself without looking at the whole
+ * board.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public interface DeltaListener {
+
+    /**
+     * Called after a move with the dots it changed. The delta is reused
+     * for the next moves so it must not be kept after this returns.
+     *
+     * @param model the model of the game
+     * @param delta the dots that changed
+     */
+
+    public abstract void boardChanged( GameModel model, BoardDelta delta );
+
+}
@@ -4,8 +4,8 @@ import javax.swing.JButton;
 /**
  * In the application <b>Minesweeper</b>, a <b>DotButton</b> is a specialized type of
  * <b>JButton</b> that represents a square in the game. 
- * It can have a number of possible icons, which are found in the
- * "icons" directory. The icon expresses the state of the dot:
+ * It can have a number of possible icons, which are loaded from the
+ * "icons" directory by the <b>IconAtlas</b>. The icon expresses the state of the dot:
  * covered, number of neighbooring mines, exploded..
  * 
  * 
@@ -92,15 +92,20 @@ public class DotButton extends JButton {
             return;
         }
 
-        // If hasn't been loaded yet load it
-        if(icons[iconNumber] == null){
-            this.getImageIcon(iconNumber);
-        }
-
         this.iconNumber = iconNumber;
-        setIcon(icons[iconNumber]);
+        setIcon(getImageIcon(iconNumber));
     }
  
+    /**
+     * Getter method for the attribute iconNumber.
+     * 
+     * @return the value of the attribute iconNumber
+     */
+
+    public int getIconNumber() {
+        return this.iconNumber;
+    }
+
     /**
      * Getter method for the attribute row.
      * 
@@ -122,45 +127,18 @@ public class DotButton extends JButton {
     }
 
     /**
-     * Returns the <b>ImageIcon</b> reference to use based on
-     * the current value of the variable iconNumber. 
+     * Returns the <b>ImageIcon</b> reference to use for an icon
+     * number. The image is a part of the <b>IconAtlas</b>
      * 
-     * @param icNum The number of the icon to load
+     * @param icNum The number of the icon
      * 
      * @return the image to be displayed by the button
      */
 
-    private ImageIcon getImageIcon(int icNum) {
+    static ImageIcon getImageIcon(int icNum) {
         if (icons[icNum] == null) {
-                icons[icNum] = new ImageIcon("src/main/java/icons/" + getIconFileName());
+                icons[icNum] = new ImageIcon(IconAtlas.get().getIcon(icNum));
         }
         return icons[icNum];
     }
-
-    /**
-     * This method returns the name of the file containing the image 
-     * corresponding to the current value of the variable iconNumber.
-     *
-     * @return the name of the icon file to be used
-     */
-    private String getIconFileName(){
-        switch(iconNumber) {
-            case 0 : return "Minesweeper_0.png";
-            case 1 : return "Minesweeper_1.png";
-            case 2 : return "Minesweeper_2.png";
-            case 3 : return "Minesweeper_3.png";
-            case 4 : return "Minesweeper_4.png";
-            case 5 : return "Minesweeper_5.png";
-            case 6 : return "Minesweeper_6.png";
-            case 7 : return "Minesweeper_7.png";
-            case 8 : return "Minesweeper_8.png";
-            case 9 : return "Minesweeper_mine.png";
-            case 10 : return "Minesweeper_mineSelected.png";
-            case 11 : return "Minesweeper_unopened_square.png";
-            case 12 : return "Minesweeper_flag.png";
-            default: System.out.println("Invalid icon number: " + iconNumber);
-                     return "";
-        }
-
-    }
 }
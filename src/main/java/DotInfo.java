@@ -1,8 +1,9 @@
 
 /**
- * The class <b>DotInfo</b> is a simple helper class to store 
- * the state (e.g. clicked, mined, number of neighbooring mines...) 
- * at the dot position (x,y)
+ * The class <b>DotInfo</b> is a simple helper class to look at
+ * the state (e.g. clicked, mined, number of neighbooring mines...)
+ * of the dot at position (x,y). It does not hold the state itself,
+ * every call reads or writes the packed board of the <b>GameModel</b>
  *
  * @author Owen Anderson
  * Student number: 300011168
@@ -13,47 +14,67 @@
 
 public class DotInfo {
 
-    private int x, y, neighboringMines;
-    private boolean mined, covered, wasClicked, flagged;
+    private GameModel model;
+    private int x, y;
 
     /**
      * Constructor, used to initialize the instance variables
-     * 
+     *
+     * @param model
+     *            the model that holds the dot
      * @param x
      *            the x coordinate
      * @param y
      *            the y coordinate
      */
-    public DotInfo(int x, int y){
+    public DotInfo(GameModel model, int x, int y){
+        this.model = model;
         this.x = x;
         this.y = y;
-        this.covered = true;
     }
 
     /**
      * Getter method for the attribute x.
-     * 
+     *
      * @return the value of the attribute x
      */
     public int getX(){
         return this.x;
     }
-    
+
     /**
      * Getter method for the attribute y.
-     * 
+     *
      * @return the value of the attribute y
      */
     public int getY(){
         return this.y;
     }
-    
- 
+
+    /**
+     * Gets the packed state of the dot from the model
+     *
+     * @return The state of the dot
+     */
+    private int getCell(){
+        return this.model.getBoard().get(this.model.getIndex(this.x, this.y));
+    }
+
+    /**
+     * Writes the packed state of the dot in the model
+     *
+     * @param cell The new state of the dot
+     */
+    private void setCell(int cell){
+        this.model.setCell(this.model.getIndex(this.x, this.y), cell);
+        this.model.invalidateZones();
+    }
+
     /**
      * Setter for mined
      */
     public void setMined() {
-        this.mined = true;
+        this.model.setMined(this.model.getIndex(this.x, this.y));
     }
 
     /**
@@ -62,7 +83,7 @@ public class DotInfo {
      * @return mined
      */
     public boolean isMined() {
-        return this.mined;
+        return this.model.isMined(this.x, this.y);
     }
 
 
@@ -70,7 +91,7 @@ public class DotInfo {
      * Setter for covered
      */
     public void uncover() {
-        this.covered = false;
+        this.model.uncover(this.x, this.y);
     }
 
     /**
@@ -79,7 +100,7 @@ public class DotInfo {
      * @return covered
      */
     public boolean isCovered(){
-        return this.covered;
+        return this.model.isCovered(this.x, this.y);
     }
 
 
@@ -88,7 +109,7 @@ public class DotInfo {
      * Setter for wasClicked
      */
     public void click() {
-        this.wasClicked = true;
+        this.model.click(this.x, this.y);
     }
 
 
@@ -98,7 +119,7 @@ public class DotInfo {
      * @return wasClicked
      */
     public boolean hasBeenClicked() {
-        return this.wasClicked;
+        return this.model.hasBeenClicked(this.x, this.y);
     }
 
 
@@ -109,15 +130,14 @@ public class DotInfo {
      *          number of neighbooring mines
      */
     public void setNeighbooringMines(int neighboringMines) {
-        this.neighboringMines = neighboringMines;
+        this.setCell((this.getCell() & ~Board.NEIGHBOURS_MASK) | neighboringMines);
     }
 
     /**
-     * Just adds one to the instance varible that keeps track of the number of
-     * mines adjacent to the place
+     * Just adds one to the number of mines adjacent to the place
      */
     public void incrementNeighboringMines(){
-        this.neighboringMines++;
+        this.setCell(this.getCell() + 1);
     }
 
     /**
@@ -126,23 +146,23 @@ public class DotInfo {
      * @return neighboringMines
      */
     public int getNeighbooringMines() {
-        return this.neighboringMines;
+        return this.model.getNeighbooringMines(this.x, this.y);
     }
 
     /**
      * Gets weather the spot is flagged or not
-     * 
+     *
      * @return The state of the flaggyness (True if it has a flag on it false if not)
      */
     public boolean isFlagged(){
-        return this.flagged;
+        return this.model.isFlagged(this.x, this.y);
     }
 
     /**
-     * Toggles the flagged var from false to true or true to false
+     * Toggles the flagged state from false to true or true to false
      */
     public void toggleFlagged(){
-        this.flagged = !this.flagged;
+        this.model.toggleMineFlag(this.x, this.y);
     }
 
  }
@@ -0,0 +1,196 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.swing.Timer;
+
+/**
+ * The class <b>FrameScheduler</b> gathers the changes of the moves and
+ * shows them at most once per frame of the screen. The game logic
+ * thread posts the <b>BoardDelta</b> of each move. The deltas posted
+ * during a frame are merged into one, and when the frame ends the
+ * listeners get the merged delta on the Swing event thread. Quick
+ * clicks therefore cost one refresh of the view per frame, however
+ * many moves were made.
+ *
+ * A dot changed by several moves of a frame is listed once, with its
+ * last state, so a flag put and taken off many times in a frame is
+ * drawn once. The dots are found with a small hash table of up to
+ * 65536 dots per frame, dots past that are just added to the list
+ * (the last change of a dot is still the one shown).
+ *
+ * A merged delta that lists more changes than the board has dots, or
+ * that holds a full refresh, becomes a single full refresh.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class FrameScheduler {
+
+    /**
+     * Default number of frames per second
+     */
+    public static final int DEFAULT_RATE = 60;
+
+    /**
+     * The most dots of a frame kept only once
+     */
+    private static final int MAX_SLOTS = 1 << 16;
+
+    private GameModel model;
+    private ArrayList<DeltaListener> listeners;
+    private BoardDelta pending, showing;
+    private boolean scheduled;
+    private Timer timer;
+
+    // Hash table of the dots of the pending frame, the key is the index
+    // plus 1 (0 for an empty slot) and the value the number of its change
+    private int[] slotKeys = new int[MAX_SLOTS * 2];
+    private int[] slotChanges = new int[MAX_SLOTS * 2];
+    private int slotsUsed;
+
+    /**
+     * Constructor for a scheduler showing the changes of a model
+     *
+     * @param model The model of the game
+     * @param rate The most refreshes per second, from 1 to 1000
+     */
+    public FrameScheduler(GameModel model, int rate) {
+        this.model = model;
+        this.listeners = new ArrayList<DeltaListener>();
+        this.pending = new BoardDelta();
+        this.showing = new BoardDelta();
+        this.timer = new Timer(getDelay(rate), new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                flush();
+            }
+        });
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Adds a listener told about the changes at the end of each frame
+     * with changes, it is called on the Swing event thread
+     *
+     * @param listener The listener to add
+     */
+    public void addDeltaListener(DeltaListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Changes the most refreshes per second
+     *
+     * @param rate The number of frames per second, from 1 to 1000
+     */
+    public void setRate(int rate) {
+        this.timer.setInitialDelay(getDelay(rate));
+    }
+
+    /**
+     * Gets the time of a frame
+     *
+     * @param rate The number of frames per second, from 1 to 1000
+     * @return The time of a frame in milliseconds
+     */
+    static int getDelay(int rate) {
+        if (rate < 1 || rate > 1000) {
+            throw new IllegalArgumentException("Frame rate must be from 1 to 1000: " + rate);
+        }
+        return 1000 / rate;
+    }
+
+    /**
+     * Adds the changes of a move to the next frame. It can be called
+     * from any thread, the delta can be reused once it returns
+     *
+     * @param delta The changes of the move
+     */
+    public synchronized void post(BoardDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (!this.pending.isFullRefresh()) {
+            if (delta.isFullRefresh() || this.pending.size() + delta.size() > this.model.getWidth() * this.model.getHeigth()) {
+                this.pending.clear();
+                this.pending.setFullRefresh();
+                this.clearSlots();
+            } else {
+                for (int k = 0; k < delta.size(); k++) {
+                    this.merge(delta.getIndex(k), delta.getState(k));
+                }
+            }
+        }
+
+        // The first change of a frame starts the frame
+        if (!this.scheduled) {
+            this.scheduled = true;
+            this.timer.restart();
+        }
+    }
+
+    /**
+     * Adds a change to the pending frame, or replaces the state of the
+     * dot if it already changed during the frame
+     *
+     * @param index The index of the dot
+     * @param state The new packed state of the dot
+     */
+    private void merge(int index, int state) {
+        int mask = this.slotKeys.length - 1;
+        int slot = (index * 0x9E3779B9) >>> 15 & mask;
+        while (this.slotKeys[slot] != 0) {
+            if (this.slotKeys[slot] == index + 1) {
+                this.pending.setState(this.slotChanges[slot], state);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Not seen yet this frame, keep its slot while there is room
+        if (this.slotsUsed < MAX_SLOTS) {
+            this.slotKeys[slot] = index + 1;
+            this.slotChanges[slot] = this.pending.size();
+            this.slotsUsed++;
+        }
+        this.pending.add(index, state);
+    }
+
+    /**
+     * Empties the hash table for the next frame
+     */
+    private void clearSlots() {
+        if (this.slotsUsed > 0) {
+            Arrays.fill(this.slotKeys, 0);
+            this.slotsUsed = 0;
+        }
+    }
+
+    /**
+     * Shows the changes waiting for the end of the frame right away.
+     * Must be called on the Swing event thread
+     */
+    public void flush() {
+        synchronized (this) {
+            this.scheduled = false;
+            this.timer.stop();
+            BoardDelta swap = this.showing;
+            this.showing = this.pending;
+            this.pending = swap;
+            this.clearSlots();
+        }
+
+        if (!this.showing.isEmpty()) {
+            for (int i = 0; i < this.listeners.size(); i++) {
+                this.listeners.get(i).boardChanged(this.model, this.showing);
+            }
+        }
+        this.showing.clear();
+    }
+}
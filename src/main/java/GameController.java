@@ -1,11 +1,40 @@
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * The class <b>GameController</b> is the controller of the game. It is a listener
  * of the view, and has a method <b>play</b> which computes the next
  * step of the game, and  updates model and view.
  *
+ * The moves do not run on the Swing event thread. The mouse events
+ * hand them to a single game logic thread, which runs them one after
+ * the other in the order they were made, so a long reveal or a reset
+ * of a big board never freezes the window. When a move is done the
+ * dots it changed are posted as a <b>BoardDelta</b> to a
+ * <b>FrameScheduler</b>, which gives the changes of all the moves of
+ * a frame to the listeners on the event thread, at most 60 times a
+ * second. The dialogs at the end of a game are shown from the event
+ * thread too. Each move holds the change lock of the model (see
+ * <b>GameModel.beginChange</b>), so the view can tell when what it
+ * read was half changed by a move.
+ *
+ * Pointing at a dot is used as a hint of the next click. When the
+ * mouse rests on a dot of the board panel, or a button is pressed on
+ * it, a <b>SpeculativeReveal</b> works out in the background which
+ * dots a click there would uncover, so the click only has to write
+ * them. This is only done for boards too big to be indexed, which are
+ * always drawn by a panel, and not when the reveal is shown as waves.
+ *
  * @author Owen Anderson
  * Student number: 300011168
  * Course: ITI 1121-A
@@ -13,10 +42,29 @@ import java.awt.event.MouseListener;
  *
  */
 
-public class GameController implements MouseListener {
+public class GameController implements MouseListener, MouseMotionListener {
+
+    /**
+     * How long the mouse has to rest on a dot before its reveal is
+     * worked out, in milliseconds
+     */
+    public static final int HOVER_DELAY = 100;
 
     private GameModel model;
     private GameView view;
+    private FrameScheduler frames;
+    private RevealEngine revealEngine = new ZoneReveal(new ParallelReveal(new ScanlineReveal()));
+    private WaveReveal waveEngine;
+    private volatile boolean streaming;
+    private ExecutorService logic;
+    private SpeculativeReveal speculation;
+    private Timer hoverTimer;
+    private Point hovered;
+
+    /**
+     * What a move did to the game
+     */
+    private static final int PLAYING = 0, LOST = 1, WON = 2;
 
     /**
      * Constructor used for initializing the controller. It creates the game's view 
@@ -30,18 +78,161 @@ public class GameController implements MouseListener {
      *            the number of mines hidden in the board
      */
     public GameController(int width, int height, int numberOfMines) {
-        this.model = new GameModel(width, height, numberOfMines);
+        this(new GameModel(width, height, numberOfMines));
+    }
+
+    /**
+     * Constructor used for initializing the controller with a seed, so
+     * the games can be replayed. It creates the game's view and the
+     * game's model instances
+     * 
+     * @param width
+     *            the width of the board on which the game will be played
+     * @param height
+     *            the height of the board on which the game will be played
+     * @param numberOfMines
+     *            the number of mines hidden in the board
+     * @param seed
+     *            the seed of the first board
+     */
+    public GameController(int width, int height, int numberOfMines, long seed) {
+        this(new GameModel(width, height, numberOfMines, seed));
+    }
+
+    /**
+     * Constructor used for playing on a model that was already made,
+     * for example one stored in a <b>MappedBoard</b>. It creates the
+     * game's view
+     * 
+     * @param model
+     *            the model of the game
+     */
+    public GameController(GameModel model) {
+        this.model = model;
+        this.model.setPoolDepth(BoardPool.DEFAULT_DEPTH);
+        this.frames = new FrameScheduler(this.model, FrameScheduler.DEFAULT_RATE);
+        this.waveEngine = new WaveReveal(new Runnable() {
+            @Override
+            public void run() {
+                publishDelta(PLAYING);
+            }
+        }, FrameScheduler.getDelay(FrameScheduler.DEFAULT_RATE));
+        this.logic = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "game-logic");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.speculation = new SpeculativeReveal(this.model);
+        this.hoverTimer = new Timer(HOVER_DELAY, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                speculate(hovered);
+            }
+        });
+        this.hoverTimer.setRepeats(false);
 
         this.view = new GameView(this.model, this);
+        this.addDeltaListener(this.view);
         this.view.setVisible(true);
     }
 
     /**
-     * Resets the game and updates the view
+     * Resets the game and updates the view, the whole board is redrawn.
+     * The reset runs on the game logic thread after the moves already
+     * made
      */
     public void reset() {
-        this.model.reset();
-        this.view.update();
+        this.runMove(new Runnable() {
+            @Override
+            public void run() {
+                model.reset();
+                publishDelta(PLAYING);
+            }
+        });
+    }
+
+    /**
+     * Runs a move on the game logic thread, after the moves already
+     * made, holding the change lock of the model while it runs
+     * 
+     * @param move The move to run
+     */
+    private void runMove(final Runnable move) {
+        this.logic.execute(new Runnable() {
+            @Override
+            public void run() {
+                model.beginChange();
+                try {
+                    move.run();
+                } finally {
+                    model.endChange();
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a listener told about the dots changed by the moves, it is
+     * called on the Swing event thread at most once per frame
+     * 
+     * @param listener The listener to add
+     */
+    public void addDeltaListener(DeltaListener listener) {
+        this.frames.addDeltaListener(listener);
+    }
+
+    /**
+     * Changes the most times per second the view is refreshed, the
+     * waves of the streaming reveal follow the same rate
+     * 
+     * @param rate The number of frames per second, from 1 to 1000
+     */
+    public void setFrameRate(int rate) {
+        this.frames.setRate(rate);
+        this.waveEngine.setFrameMillis(FrameScheduler.getDelay(rate));
+    }
+
+    /**
+     * Turns the streaming reveal on or off. When it is on, a blank
+     * region is opened one layer at a time and the layers are shown as
+     * they are uncovered, instead of all at once at the end of the fill
+     * 
+     * @param streaming True to show the reveal as waves
+     */
+    public void setStreamingReveal(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Takes the dots changed by the last move from the model and adds
+     * them to the next frame. If the game is over the player is asked
+     * to play again once the move is shown. Called on the game logic
+     * thread
+     * 
+     * @param outcome What the move did to the game
+     */
+    private void publishDelta(final int outcome) {
+        BoardDelta delta = this.model.takeDelta();
+        this.frames.post(delta);
+        this.model.recycleDelta(delta);
+
+        if (outcome != PLAYING) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    frames.flush();
+                    boolean again = view.askPlayAgain(outcome == LOST);
+                    if (!again) {
+                        System.exit(0);
+                    } else {
+                        reset();
+                    }
+                }
+            });
+        }
     }
 
     /**
@@ -49,107 +240,170 @@ public class GameController implements MouseListener {
      * If that square is not already clicked, then it applies the logic
      * of the game to uncover that square, and possibly end the game if
      * that square was mined, or possibly uncover some other squares. 
-     * It then checks if the game
-     * is finished, and if so, congratulates the player, showing the number of
-     * moves, and gives to options: start a new game, or exit
+     * It then checks if the game is finished. It runs on the game logic
+     * thread, the player is told about the end of the game once the
+     * view shows the move
      * @param x
      *            the selected column
      * @param y
      *            the selected line
+     * @return LOST or WON if the move ended the game, PLAYING if not
      */
-    private void play(int x, int y) {
-        DotInfo spot = this.model.get(x, y);
+    private int play(int x, int y) {
 
-        // If already uncovered or flagged stop now
-        if (!spot.isCovered() || spot.isFlagged()) {
-            return;
+        // If the game is over, already uncovered or flagged stop now
+        if (this.model.getLose() || this.model.isFinished()
+                || !this.model.isCovered(x, y) || this.model.isFlagged(x, y)) {
+            return PLAYING;
         }
 
         this.model.step();
 
+        // Uncover the dots worked out while the player pointed at this
+        // one, if the board did not change since. It is a blank dot so
+        // it can not be a mine. Waves are filled the normal way so they
+        // can be shown
+        if (!this.streaming && this.speculation.commit(x, y)) {
+            return this.model.isFinished() ? WON : PLAYING;
+        }
+
         // Uncover the spot
-        spot.uncover();
+        this.model.uncover(x, y);
 
         // If it's a mine you lose
-        if (spot.isMined()) {
-            spot.click();
+        if (this.model.isMined(x, y)) {
+            this.model.click(x, y);
             this.model.setLose();
-            this.view.update();// Update before showing dialog so the mine shows while blocking
-            boolean again = this.view.askPlayAgain(true);
-            if (!again) {
-                System.exit(0);
-            } else {
-                this.reset();
-            }
-            return;
+            return LOST;
         }
 
         // If it's blank start clearing 
-        if (spot.getNeighbooringMines() == 0) {
-            this.clearZone(spot);
+        if (this.model.getNeighbooringMines(x, y) == 0) {
+            this.clearZone(x, y);
         }
 
-        // Check if they player has won and if so let them know
+        // Check if they player has won
         if (this.model.isFinished()) {
-            this.view.update();
-            boolean again = this.view.askPlayAgain(false);
-            if (!again) {
-                System.exit(0);
-            } else {
-                this.reset();
-            }
-            return;
+            return WON;
         }
+        return PLAYING;
     }
 
     /**
      * <b>clearZone</b> is the method that computes which new dots should be ``uncovered'' 
-     * when a new square with no mine in its neighborood has been selected
-     * @param initialDot
-     *      the DotInfo object corresponding to the selected DotButton that
-     * had zero neighbouring mines
-     */
-    private void clearZone(DotInfo initialDot) {
-        GenericArrayStack<DotInfo> stack = new GenericArrayStack<DotInfo>(
-                this.model.getHeigth() * this.model.getWidth());
-        stack.push(initialDot);
-        initialDot.uncover();
-        while (!stack.isEmpty()) {
-            DotInfo cur = stack.pop();
-            if (cur.getNeighbooringMines() == 0) {
-                DotInfo[] adj = this.model.getAdjacent(cur.getX(), cur.getY());
-                for (int i = 0; i < adj.length; i++) {
-                    if (adj[i].isCovered() && adj[i].getNeighbooringMines() == 0) {
-                        stack.push(adj[i]);
-                    }
-                    if(!adj[i].isFlagged()){
-                        adj[i].uncover();
-                    }
-                }
-            }
+     * when a new square with no mine in its neighborood has been selected.
+     * The work is done by the reveal engine, which uncovers the region
+     * listed when the board was generated. Boards too big to be indexed
+     * are filled in parallel, or one horizontal run at a time when
+     * they are not that big. In streaming mode the region is filled in
+     * waves that are shown while the fill goes on
+     * @param x
+     *      the column of the selected dot that had zero neighbouring mines
+     * @param y
+     *      the row of the selected dot that had zero neighbouring mines
+     */
+    private void clearZone(int x, int y) {
+        if (this.streaming) {
+            this.waveEngine.reveal(this.model, x, y);
+            return;
         }
+        this.revealEngine.reveal(this.model, x, y);
     }
 
     @Override
     /**
      * Triggered when the button is clicked by the mouse
-     * It then triggers the approprite action based on which button
-     * was used to click it
+     * It then hands the approprite action based on which button
+     * was used to click it to the game logic thread
      * 
      * @param e - The mouse event object passed from the event
      */
     public void mouseClicked(MouseEvent e) {
+        Point dot = this.getDot(e);
+        if (dot == null) {
+            return;
+        }
+        final int x = dot.x, y = dot.y;
+
         if (e.getButton() == 1) {
-            DotButton but = (DotButton) e.getSource();
-            this.play(but.getColumn(), but.getRow());
-            this.view.update();
+            this.runMove(new Runnable() {
+                @Override
+                public void run() {
+                    publishDelta(play(x, y));
+                }
+            });
         } else if (e.getButton() == 3) {
-            // If right click and covered toggle the flagged state
-            DotButton but = (DotButton) e.getSource();
-            if(this.model.get(but.getColumn(), but.getRow()).isFlagged() || this.model.get(but.getColumn(), but.getRow()).isCovered()){
-                this.model.toggleMineFlag(but.getColumn(), but.getRow());
-                this.view.update();
+            this.runMove(new Runnable() {
+                @Override
+                public void run() {
+                    // Ignore flags once the game is over, until the reset
+                    if (model.getLose() || model.isFinished()) {
+                        return;
+                    }
+
+                    // If right click and covered toggle the flagged state
+                    if (model.isFlagged(x, y) || model.isCovered(x, y)) {
+                        model.toggleMineFlag(x, y);
+                        publishDelta(PLAYING);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Finds the dot under the mouse
+     * 
+     * @param e - The mouse event object passed from the event
+     * @return The column and row of the dot, or null if the mouse is
+     *         not on a dot
+     */
+    private Point getDot(MouseEvent e) {
+        if (e.getSource() instanceof BoardPanel) {
+            // One panel for the whole board, find the dot under the mouse
+            BoardPanel panel = (BoardPanel) e.getSource();
+            int x = panel.getColumnAt(e.getX());
+            int y = panel.getRowAt(e.getY());
+            if (x < 0 || y < 0) {
+                return null;
             }
+            return new Point(x, y);
+        }
+        DotButton but = (DotButton) e.getSource();
+        return new Point(but.getColumn(), but.getRow());
+    }
+
+    /**
+     * Hands the working out of the reveal of a dot to the game logic
+     * thread, after the moves already made. Not done in streaming mode,
+     * the waves do not use it
+     * 
+     * @param dot The dot the player points at, or null
+     */
+    private void speculate(final Point dot) {
+        if (dot == null || this.streaming) {
+            return;
+        }
+        this.logic.execute(new Runnable() {
+            @Override
+            public void run() {
+                speculation.speculate(dot.x, dot.y);
+            }
+        });
+    }
+
+    /**
+     * Starts waiting for the mouse to rest on the dot under it
+     * 
+     * @param e - The mouse event object passed from the event
+     */
+    private void hover(MouseEvent e) {
+        Point dot = this.getDot(e);
+        if (dot == null) {
+            this.hoverTimer.stop();
+        } else if (!dot.equals(this.hovered) || !this.hoverTimer.isRunning()) {
+            this.hovered = dot;
+            this.hoverTimer.restart();
         }
     }
 
@@ -162,16 +416,27 @@ public class GameController implements MouseListener {
 
     @Override
     /**
-     * Just an empty listener method
+     * Triggered when the mouse leaves a button or the board
+     * 
+     * @param e - The mouse event object passed from the event
      */
     public void mouseExited(MouseEvent e) {
+        this.hoverTimer.stop();
     }
 
     @Override
     /**
-     * Just an empty listener method
+     * Triggered when a mouse button is pressed. A left press is
+     * nearly always followed by a click, so the reveal of the dot is
+     * worked out right away
+     * 
+     * @param e - The mouse event object passed from the event
      */
     public void mousePressed(MouseEvent e) {
+        if (e.getButton() == 1) {
+            this.hoverTimer.stop();
+            this.speculate(this.getDot(e));
+        }
     }
 
     @Override
@@ -181,4 +446,22 @@ public class GameController implements MouseListener {
     public void mouseReleased(MouseEvent e) {
     }
 
+    @Override
+    /**
+     * Triggered when the mouse moves over the board panel, the reveal
+     * of the dot under it is worked out if the mouse rests there
+     * 
+     * @param e - The mouse event object passed from the event
+     */
+    public void mouseMoved(MouseEvent e) {
+        this.hover(e);
+    }
+
+    @Override
+    /**
+     * Just an empty listener method
+     */
+    public void mouseDragged(MouseEvent e) {
+    }
+
 }
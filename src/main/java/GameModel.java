@@ -1,11 +1,12 @@
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * The class <b>GameModel</b> holds the model, the state of the systems. 
  * It stores the following information:
  * - the state of all the ``dots'' on the board (mined or not, clicked
- * or not, number of neighbooring mines...)
+ * or not, number of neighbooring mines...), packed one byte per dot
+ * in a <b>Board</b>
  * - the size of the board
  * - the number of steps since the last reset
  *
@@ -14,6 +15,13 @@ import java.util.Random;
  * The controller can also update the model through Setters.
  * Finally, the model is also in charge of initializing the game
  *
+ * The model is changed by one thread, which calls <b>beginChange</b>
+ * and <b>endChange</b> around each move. Other threads, like the Swing
+ * event thread painting the board, read it without waiting: they take
+ * a stamp with <b>startRead</b> before reading and check it with
+ * <b>validateRead</b> after. If a move ran in between, what they read
+ * may be half changed and must be thrown away.
+ *
  * @author Owen Anderson
  * Student number: 300011168
  * Course: ITI 1121-A
@@ -23,10 +31,26 @@ import java.util.Random;
 
 public class GameModel {
 
-    private int width, height, numberOfMines, steps, minesLeft;
-    private Random generator;
-    private DotInfo[][] board;
-    private boolean lost;
+    /**
+     * The most dots a board can have, the dots are found by an int index
+     */
+    public static final int MAX_DOTS = Integer.MAX_VALUE;
+
+    private int width, height, numberOfMines, steps;
+    private int flags, revealed, coveredSafe;
+    private RandomSource random;
+    private long seed;
+    private Board board;
+    private int[] neighbourOffsets;
+    private BoardGenerator boardGenerator;
+    private BoardPool pool;
+    private ZoneIndex zones;
+    private SummaryPyramid summary;
+    private BoardDelta delta, spareDelta;
+    private volatile boolean lost;
+    private long version;
+    private final StampedLock lock = new StampedLock();
+    private long writeStamp;
 
     /**
      * Constructor to initialize the model to a given size of board.
@@ -41,103 +65,322 @@ public class GameModel {
      *            the number of mines to hide in the board
      */
     public GameModel(int width, int heigth, int numberOfMines) {
+        this(width, heigth, numberOfMines, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor to initialize the model to a given size of board,
+     * starting from a given seed. The same seed always gives the same
+     * boards, in the same order, for the same size of board. Very large
+     * boards are generated another way (see <b>BoardGenerator</b>) so a
+     * seed does not give alike boards of different sizes.
+     * 
+     * @param width
+     *            the width of the board
+     * 
+     * @param heigth
+     *            the heigth of the board
+     * 
+     * @param numberOfMines
+     *            the number of mines to hide in the board
+     * 
+     * @param seed
+     *            the seed of the first board
+     */
+    public GameModel(int width, int heigth, int numberOfMines, long seed) {
+        this(width, heigth, numberOfMines, new ArrayBoard(checkSize(width, heigth)), 
+            new SplittableRandomSource(seed), seed);
+    }
+
+    /**
+     * Constructor to initialize the model on a given board storage,
+     * for example a <b>MappedBoard</b> for boards bigger than the heap.
+     * A new game is generated in the storage.
+     * 
+     * @param width
+     *            the width of the board
+     * 
+     * @param heigth
+     *            the heigth of the board
+     * 
+     * @param numberOfMines
+     *            the number of mines to hide in the board
+     * 
+     * @param board
+     *            the storage to use, must hold width*heigth dots
+     */
+    public GameModel(int width, int heigth, int numberOfMines, Board board) {
+        this(width, heigth, numberOfMines, board, 
+            new SplittableRandomSource(0), new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor to initialize the model on a given board storage
+     * with a given kind of random numbers, starting from a given seed.
+     * 
+     * @param width
+     *            the width of the board
+     * 
+     * @param heigth
+     *            the heigth of the board
+     * 
+     * @param numberOfMines
+     *            the number of mines to hide in the board
+     * 
+     * @param board
+     *            the storage to use, must hold width*heigth dots
+     * 
+     * @param random
+     *            the kind of random numbers to use, a new source of
+     *            that kind is made from the seed of every board
+     * 
+     * @param seed
+     *            the seed of the first board
+     */
+    public GameModel(int width, int heigth, int numberOfMines, Board board, 
+            RandomSource random, long seed) {
+        if (board.size() != checkSize(width, heigth)) {
+            throw new IllegalArgumentException("Board of " + board.size() 
+                + " dots can not hold a " + width + "x" + heigth + " game");
+        }
         this.width = width;
         this.height = heigth;
         this.numberOfMines = numberOfMines;
-        this.generator = new Random();
+        this.random = random;
+        this.seed = seed;
         this.lost = false;
-        this.minesLeft = numberOfMines;
+        this.board = board;
+        this.initNeighbourOffsets();
+        this.boardGenerator = new BoardGenerator(width, heigth);
+        this.delta = new BoardDelta();
         this.initializeBoard();
     }
 
     /**
-     * Picks a random x and y position on the board
+     * Gets the number of dots of a board, checking it can be played.
+     * The product is done on longs so a board too big for an int index
+     * is not mistaken for a smaller one
      * 
-     * @return A list with index 0 and x and index 1 as y
+     * @param width
+     *            the width of the board
+     * @param heigth
+     *            the heigth of the board
+     * @return the number of dots
+     * @throws IllegalArgumentException if a side is not positive or the
+     *            board has more than MAX_DOTS dots
      */
-    private int[] pickPosition() {
-        int[] cords = new int[2];
-        cords[0] = this.generator.nextInt(this.width);
-        cords[1] = this.generator.nextInt(this.height);
-        return cords;
+    static int checkSize(int width, int heigth) {
+        long size = (long) width * heigth;
+        if (width < 1 || heigth < 1 || size > MAX_DOTS) {
+            throw new IllegalArgumentException("Board of " + width + "x" + heigth 
+                + " can not be played, it must have from 1 to " + MAX_DOTS + " dots");
+        }
+        return (int) size;
     }
 
     /**
-     * Places a mine and keeps track of the neighboring mines
-     * for adjacent mines
+     * Constructor to continue a game stored in a <b>MappedBoard</b>.
+     * The dots are left as they are, the mines left and lost state are
+     * read back from them. The step counter starts again at 0.
      * 
-     * @param pos - The position index 0 is x index 1 is y
+     * @param board
+     *            the stored game
      */
-    private void placeMine(int[] pos) {
-        int x = pos[0];
-        int y = pos[1];
-        this.board[x][y].setMined();
+    public GameModel(MappedBoard board) {
+        this.width = board.getWidth();
+        this.height = board.getHeigth();
+        this.numberOfMines = board.getNumberOfMines();
+        this.random = new SplittableRandomSource(0);
+        this.seed = new SplittableRandom().nextLong();
+        this.board = board;
+        this.initNeighbourOffsets();
+        this.boardGenerator = new BoardGenerator(this.width, this.height);
+        this.delta = new BoardDelta();
+        this.delta.setFullRefresh();
+        this.lost = false;
 
-        //Gets all adjacent spots and adds one to their adjacent mine counter
-        DotInfo[] adj = this.getAdjacent(x, y);
-        for (int i = 0; i < adj.length; i++) {
-            adj[i].incrementNeighboringMines();
+        // The counters are not stored so count them once
+        for (int i = 0; i < board.size(); i++) {
+            int cell = board.get(i);
+            if ((cell & Board.FLAGGED) != 0) {
+                this.flags++;
+            }
+            if ((cell & Board.UNCOVERED) != 0) {
+                this.revealed++;
+            } else if ((cell & Board.MINED) == 0) {
+                this.coveredSafe++;
+            }
+            if ((cell & (Board.MINED | Board.CLICKED)) == (Board.MINED | Board.CLICKED)) {
+                this.lost = true;
+            }
         }
+        this.indexZones();
     }
 
     /**
-     * Gets all the adjacent DotInfo objects to a given x and y cord
-     * takes into account the border of the board
+     * Marks the dot at a given index as mined and keeps the count
+     * of covered safe dots up to date. The neighbours are not changed
      * 
-     * @param x The x cord of the spot
-     * @param y The y cord of the spot
+     * @param index - The index of the dot
+     */
+    void setMined(int index) {
+        int cell = this.board.get(index);
+        if ((cell & Board.MINED) != 0) {
+            return;
+        }
+        if ((cell & Board.UNCOVERED) == 0) {
+            this.coveredSafe--;
+        }
+        this.setCell(index, cell | Board.MINED);
+        this.invalidateZones();
+    }
+
+    /**
+     * Labels the blank regions of the board, if it is small enough
+     * to be indexed. The index of the previous board is reused
+     */
+    private void indexZones() {
+        if (this.board.size() > ZoneIndex.MAX_SIZE) {
+            this.zones = null;
+            return;
+        }
+        if (this.zones == null) {
+            this.zones = new ZoneIndex();
+        }
+        this.zones.build(this.board, this.width, this.height);
+    }
+
+    /**
+     * Drops the index of the blank regions, must be called when mines
+     * or neighbooring mines are changed after the board was generated
+     */
+    void invalidateZones() {
+        this.zones = null;
+    }
+
+    /**
+     * Gets the index of the blank regions of the board
      * 
-     * @return The adjacent spots
+     * @return The index, or null if the board is not indexed
      */
-    public DotInfo[] getAdjacent(int x, int y) {
-        ArrayList<DotInfo> temp = new ArrayList<DotInfo>();
+    public ZoneIndex getZoneIndex() {
+        return this.zones;
+    }
 
-        boolean leftGood = false, rightGood = false, upGood = false, downGood = false;
+    /**
+     * Computes the index offsets of the 8 neighbours of a dot that
+     * is not on the border of the board
+     */
+    private void initNeighbourOffsets() {
+        this.neighbourOffsets = new int[] {
+            -this.width - 1, -this.width, -this.width + 1,
+            -1, 1,
+            this.width - 1, this.width, this.width + 1
+        };
+    }
 
-        if (y == 0) {
-            temp.add(this.board[x][y + 1]);
-            downGood = true;
-        } else if (y == this.height - 1) {
-            temp.add(this.board[x][y - 1]);
-            upGood = true;
-        } else {
-            temp.add(this.board[x][y - 1]);
-            temp.add(this.board[x][y + 1]);
-            upGood = true;
-            downGood = true;
+    /**
+     * Writes the indexes of all the dots adjacent to a given dot in
+     * the array out, takes into account the border of the board.
+     * Nothing is allocated so it can be called once per dot by the
+     * flood fill and the mine placement
+     * 
+     * @param index The index of the dot
+     * @param out An array of at least 8 elements that gets the indexes
+     * 
+     * @return The number of adjacent dots written in out
+     */
+    public int getNeighbours(int index, int[] out) {
+        int x = index % this.width;
+        int y = index / this.width;
+
+        // Most dots are not on the border so just use the offsets
+        if (x > 0 && y > 0 && x < this.width - 1 && y < this.height - 1) {
+            for (int i = 0; i < 8; i++) {
+                out[i] = index + this.neighbourOffsets[i];
+            }
+            return 8;
         }
 
-        if (x == 0) {
-            temp.add(this.board[x + 1][y]);
-            rightGood = true;
-        } else if (x == this.width - 1) {
-            temp.add(this.board[x - 1][y]);
-            leftGood = true;
-        } else {
-            temp.add(this.board[x - 1][y]);
-            temp.add(this.board[x + 1][y]);
-            leftGood = true;
-            rightGood = true;
+        int count = 0;
+        int maxX = Math.min(x + 1, this.width - 1);
+        int maxY = Math.min(y + 1, this.height - 1);
+        for (int j = Math.max(y - 1, 0); j <= maxY; j++) {
+            for (int i = Math.max(x - 1, 0); i <= maxX; i++) {
+                if (i != x || j != y) {
+                    out[count++] = j * this.width + i;
+                }
+            }
         }
+        return count;
+    }
 
-        if (rightGood && downGood) {
-            temp.add(this.board[x + 1][y + 1]);
-        }
+    /**
+     * Gets the index of the dot at (i,j) in the board storage.
+     * Dots are stored row by row
+     *
+     * @param i the x coordinate of the dot
+     * @param j the y coordinate of the dot
+     *
+     * @return The index of the dot
+     */
+    public int getIndex(int i, int j) {
+        return j * this.width + i;
+    }
 
-        if (rightGood && upGood) {
-            temp.add(this.board[x + 1][y - 1]);
-        }
+    /**
+     * Package level access to the storage of the board, used by
+     * the DotInfo views
+     *
+     * @return The board storage
+     */
+    Board getBoard() {
+        return this.board;
+    }
 
-        if (leftGood && downGood) {
-            temp.add(this.board[x - 1][y + 1]);
-        }
+    /**
+     * Checks if a bit of the dot at (i,j) is set
+     *
+     * @param i the x coordinate of the dot
+     * @param j the y coordinate of the dot
+     * @param bit The bit to check, one of the constants of Board
+     *
+     * @return True if the bit is set
+     */
+    private boolean hasBit(int i, int j, int bit) {
+        return (this.board.get(j * this.width + i) & bit) != 0;
+    }
 
-        if (leftGood && upGood) {
-            temp.add(this.board[x - 1][y - 1]);
-        }
+    /**
+     * Sets a bit of the dot at (i,j)
+     *
+     * @param i the x coordinate of the dot
+     * @param j the y coordinate of the dot
+     * @param bit The bit to set, one of the constants of Board
+     */
+    private void setBit(int i, int j, int bit) {
+        int index = j * this.width + i;
+        this.setCell(index, this.board.get(index) | bit);
+    }
+
+    /**
+     * Gets all the adjacent DotInfo objects to a given x and y cord
+     * takes into account the border of the board. This makes new
+     * objects on every call, use <b>getNeighbours</b> in loops
+     * 
+     * @param x The x cord of the spot
+     * @param y The y cord of the spot
+     * 
+     * @return The adjacent spots
+     */
+    public DotInfo[] getAdjacent(int x, int y) {
+        int[] adj = new int[8];
+        int count = this.getNeighbours(this.getIndex(x, y), adj);
 
-        DotInfo[] ret = new DotInfo[temp.size()];
-        ret = temp.toArray(ret);
+        DotInfo[] ret = new DotInfo[count];
+        for (int i = 0; i < count; i++) {
+            ret[i] = this.get(adj[i] % this.width, adj[i] / this.width);
+        }
         return ret;
     }
 
@@ -145,40 +388,130 @@ public class GameModel {
      * Sets up the board and places all the mines
      */
     private void initializeBoard() {
-        this.board = new DotInfo[width][height];
+        this.board.clear();
+        this.boardGenerator.generate(this.board, this.numberOfMines, this.random.withSeed(this.seed));
+        this.indexZones();
+        this.resetCounters();
+    }
 
-        // Init DotInfo objects
-        for (int i = 0; i < this.width; i++) {
-            for (int j = 0; j < this.height; j++) {
-                this.board[i][j] = new DotInfo(i, j);
-            }
+    /**
+     * Sets the counters for a freshly generated board
+     */
+    private void resetCounters() {
+        this.version++;
+        this.rebuildSummary();
+        this.delta.clear();
+        this.delta.setFullRefresh();
+        this.flags = 0;
+        this.revealed = 0;
+        this.coveredSafe = this.board.size() - this.numberOfMines;
+    }
+
+    /**
+     * Gets the counts of the dots by blocks used to draw the board
+     * zoomed out. It is built the first time it is asked for and then
+     * kept up to date with every change of the board
+     * 
+     * @return The summary of the board
+     */
+    public SummaryPyramid getSummary() {
+        if (this.summary == null) {
+            this.summary = new SummaryPyramid(this.width, this.height);
+            this.summary.build(this.board);
         }
+        return this.summary;
+    }
+
+    /**
+     * Counts the summary again after the whole board changed, if there
+     * is one
+     */
+    private void rebuildSummary() {
+        if (this.summary != null) {
+            this.summary.build(this.board);
+        }
+    }
 
-        int numTracker = this.numberOfMines;
-        while (numTracker > 0) {
-            int[] pos = this.pickPosition();
-            if (!this.board[pos[0]][pos[1]].isMined()) {
-                this.placeMine(pos);
-                numTracker--;
+    /**
+     * Sets the number of boards generated in advance by a background
+     * thread, so <b>reset</b> can swap in a ready board. Only boards
+     * kept in an <b>ArrayBoard</b> and of at most BoardPool.MAX_DOTS
+     * dots are pooled, bigger boards are generated on reset. A depth of
+     * 0 stops the background thread
+     * 
+     * @param depth The number of boards to keep ready
+     */
+    public void setPoolDepth(int depth) {
+        if (depth <= 0 || !(this.board instanceof ArrayBoard) || this.board.size() > BoardPool.MAX_DOTS) {
+            if (this.pool != null) {
+                this.pool.shutdown();
+                this.pool = null;
             }
+            return;
+        }
+        if (this.pool == null) {
+            this.pool = new BoardPool(depth);
+            this.pool.configure(this.width, this.height, this.numberOfMines, 
+                this.random, nextSeed(this.seed));
+        } else {
+            this.pool.setDepth(depth);
         }
     }
 
     /**
      * Resets the model to (re)start a game. The previous game (if there is one)
-     * is cleared up . 
+     * is cleared up . The board memory is reused, either cleared in place or
+     * given back to the pool, so a reset does not allocate a new board.
      */
     public void reset() {
 
         // Clear old game data that needs to be
         this.steps = 0;
         this.lost = false;
-        this.minesLeft = this.numberOfMines;
+        this.seed = nextSeed(this.seed);
+
+        // Use a board from the pool if one is ready
+        BoardPool.ReadyBoard ready = null;
+        if (this.pool != null) {
+            ready = this.pool.take(this.width, this.height, this.numberOfMines, this.seed);
+        }
+        if (ready != null) {
+            this.pool.recycle(this.board, this.zones);
+            this.board = ready.board;
+            this.zones = ready.zones;
+            this.resetCounters();
+            return;
+        }
 
-        // Call init function
+        // Call init function, it reuses the current board
         this.initializeBoard();
     }
 
+    /**
+     * Computes the seed of the board that comes after the board of a
+     * given seed, so a whole series of games can be replayed from the
+     * seed of its first board (splitmix64 step)
+     * 
+     * @param seed The seed of a board
+     * @return The seed of the next board
+     */
+    static long nextSeed(long seed) {
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Getter method for the seed of the current board. A model made
+     * with this seed starts with the same board
+     * 
+     * @return the seed of the current board
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
     /**
      * Getter method for the heigth of the game
      * 
@@ -207,24 +540,39 @@ public class GameModel {
      * @return the status of the dot at location (i,j)
      */
     public boolean isMined(int i, int j) {
-        return this.board[i][j].isMined();
+        return this.hasBit(i, j, Board.MINED);
     }
 
     /**
      * Toggles a flagged mine at a given position and
-     * updates the minesLeft tracker
+     * updates the flags counter
      * 
      * @param x - The x position of the spot to flag
      * @param y - The y position of the spot to flag
      */
     public void toggleMineFlag(int x, int y){
-        if(this.board[x][y].isFlagged()){
-            this.minesLeft++;
+        int index = this.getIndex(x, y);
+        int cell = this.board.get(index);
+        if((cell & Board.FLAGGED) != 0){
+            this.flags--;
         }else{
-            this.minesLeft--;
+            this.flags++;
         }
 
-        this.board[x][y].toggleFlagged();
+        this.setCell(index, cell ^ Board.FLAGGED);
+    }
+
+    /**
+     * returns true if the dot at location (i,j) is flagged, false otherwise
+     *
+     * @param i
+     *            the x coordinate of the dot
+     * @param j
+     *            the y coordinate of the dot
+     * @return the flagged status of the dot at location (i,j)
+     */
+    public boolean isFlagged(int i, int j) {
+        return this.hasBit(i, j, Board.FLAGGED);
     }
 
     /**
@@ -233,7 +581,35 @@ public class GameModel {
      * @return - The mines left counter
      */
     public int getMinesLeft(){
-        return this.minesLeft;
+        return this.numberOfMines - this.flags;
+    }
+
+    /**
+     * Returns the number of flags on the board
+     * 
+     * @return - The flags counter
+     */
+    public int getNumberOfFlags(){
+        return this.flags;
+    }
+
+    /**
+     * Returns the number of uncovered dots, mined or not
+     * 
+     * @return - The uncovered dots counter
+     */
+    public int getNumberOfRevealed(){
+        return this.revealed;
+    }
+
+    /**
+     * Returns the number of dots that are not mined and still covered.
+     * The game is won when it gets to 0
+     * 
+     * @return - The covered safe dots counter
+     */
+    public int getNumberOfCoveredSafe(){
+        return this.coveredSafe;
     }
 
     /**
@@ -247,7 +623,7 @@ public class GameModel {
      * @return the status of the dot at location (i,j)
      */
     public boolean hasBeenClicked(int i, int j) {
-        return this.board[i][j].hasBeenClicked();
+        return this.hasBit(i, j, Board.CLICKED);
     }
 
     /**
@@ -261,7 +637,7 @@ public class GameModel {
      * @return the status of the dot at location (i,j)
      */
     public boolean isBlank(int i, int j) {
-        return this.board[i][j].getNeighbooringMines() == 0;
+        return this.getNeighbooringMines(i, j) == 0;
     }
 
     /**
@@ -274,7 +650,7 @@ public class GameModel {
      * @return the status of the dot at location (i,j)
      */
     public boolean isCovered(int i, int j) {
-        return this.board[i][j].isCovered();
+        return !this.hasBit(i, j, Board.UNCOVERED);
     }
 
     /**
@@ -288,7 +664,203 @@ public class GameModel {
      * @return the number of neighboring mines at location (i,j)
      */
     public int getNeighbooringMines(int i, int j) {
-        return this.board[i][j].getNeighbooringMines();
+        return this.board.get(this.getIndex(i, j)) & Board.NEIGHBOURS_MASK;
+    }
+
+    /**
+     * Gets the packed state of the dot at a given index, see
+     * <b>Board</b> for the meaning of the bits
+     *
+     * @param index
+     *            the index of the dot
+     * @return the state of the dot
+     */
+    public int getCell(int index) {
+        return this.board.get(index);
+    }
+
+    /**
+     * Changes the packed state of the dot at a given index and adds
+     * the change to the delta of the move. The counters are not changed
+     *
+     * @param index
+     *            the index of the dot
+     * @param cell
+     *            the new state of the dot
+     */
+    void setCell(int index, int cell) {
+        this.version++;
+        if (this.summary != null) {
+            this.summary.change(index, this.board.get(index), cell);
+        }
+        this.board.set(index, cell);
+        this.record(index, cell);
+    }
+
+    /**
+     * Starts a change of the model, other threads reading it will know
+     * their reads may be half changed until <b>endChange</b>. Called by
+     * the thread changing the model before each move
+     */
+    public void beginChange() {
+        this.writeStamp = this.lock.writeLock();
+    }
+
+    /**
+     * Ends a change of the model started by <b>beginChange</b>
+     */
+    public void endChange() {
+        this.lock.unlockWrite(this.writeStamp);
+    }
+
+    /**
+     * Starts reading the model from another thread than the one
+     * changing it
+     * 
+     * @return the stamp to check with <b>validateRead</b>, 0 if the
+     *         model is being changed right now
+     */
+    public long startRead() {
+        return this.lock.tryOptimisticRead();
+    }
+
+    /**
+     * Checks that nothing changed in the model since a read started
+     * 
+     * @param stamp
+     *            the stamp given by <b>startRead</b>
+     * @return true if what was read since is all from the same moment,
+     *         false if it must be thrown away
+     */
+    public boolean validateRead(long stamp) {
+        return stamp != 0 && this.lock.validate(stamp);
+    }
+
+    /**
+     * Gets the version of the board. It goes up every time a dot
+     * changes or a new board is started, so work done on the board
+     * ahead of time can check the board is still the same. It must be
+     * read on the thread that changes the board
+     *
+     * @return the version of the board
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Adds a change to the delta of the move. Once a full refresh is
+     * needed the changes are not listed anymore, and a delta nobody
+     * takes turns into a full refresh instead of growing forever
+     *
+     * @param index
+     *            the index of the dot
+     * @param cell
+     *            the new state of the dot
+     */
+    private void record(int index, int cell) {
+        if (this.delta.isFullRefresh()) {
+            return;
+        }
+        if (this.delta.size() >= this.board.size()) {
+            this.delta.clear();
+            this.delta.setFullRefresh();
+            return;
+        }
+        this.delta.add(index, cell);
+    }
+
+    /**
+     * Takes the list of dots changed since the last call. The model
+     * starts a new list for the next changes
+     *
+     * @return the dots that changed
+     */
+    public BoardDelta takeDelta() {
+        BoardDelta taken = this.delta;
+        if (this.spareDelta != null) {
+            this.delta = this.spareDelta;
+            this.spareDelta = null;
+        } else {
+            this.delta = new BoardDelta();
+        }
+        return taken;
+    }
+
+    /**
+     * Gives back a delta returned by <b>takeDelta</b> once it has been
+     * used, so its memory is reused for a later move
+     *
+     * @param used
+     *            the delta that is not needed anymore
+     */
+    public void recycleDelta(BoardDelta used) {
+        used.clear();
+        this.spareDelta = used;
+    }
+
+    /**
+     * Sets the status of the dot at a given index to uncovered
+     * 
+     * @param index
+     *            the index of the dot
+     */
+    public void uncover(int index) {
+        int cell = this.board.get(index);
+        if ((cell & Board.UNCOVERED) != 0) {
+            return;
+        }
+        this.revealed++;
+        if ((cell & Board.MINED) == 0) {
+            this.coveredSafe--;
+        }
+        this.setCell(index, cell | Board.UNCOVERED);
+    }
+
+    /**
+     * Adds to the counters and to the delta dots that were uncovered
+     * straight in the board by a parallel reveal. They must all be safe
+     * dots
+     * 
+     * @param uncovered
+     *            the indexes of the dots uncovered, it is emptied
+     */
+    void addRevealed(IntStack uncovered) {
+        this.version++;
+        this.revealed += uncovered.size();
+        this.coveredSafe -= uncovered.size();
+        while (!uncovered.isEmpty()) {
+            int index = uncovered.popInt();
+            int cell = this.board.get(index);
+            if (this.summary != null) {
+                this.summary.change(index, cell & ~Board.UNCOVERED, cell);
+            }
+            this.record(index, cell);
+        }
+    }
+
+    /**
+     * Uncovers dots worked out ahead of time, with the states they are
+     * changed to, and adds them to the counters and to the delta. They
+     * must all be covered safe dots, the delta must be made for the
+     * current version of the board
+     * 
+     * @param revealed
+     *            the dots to uncover and their uncovered states
+     */
+    void applyRevealed(BoardDelta revealed) {
+        this.version++;
+        this.revealed += revealed.size();
+        this.coveredSafe -= revealed.size();
+        for (int k = 0; k < revealed.size(); k++) {
+            int index = revealed.getIndex(k);
+            int cell = revealed.getState(k);
+            if (this.summary != null) {
+                this.summary.change(index, cell & ~Board.UNCOVERED, cell);
+            }
+            this.board.set(index, cell);
+            this.record(index, cell);
+        }
     }
 
     /**
@@ -300,7 +872,7 @@ public class GameModel {
      *            the y coordinate of the dot
      */
     public void uncover(int i, int j) {
-        this.board[i][j].uncover();
+        this.uncover(this.getIndex(i, j));
     }
 
     /**
@@ -312,7 +884,7 @@ public class GameModel {
      *            the y coordinate of the dot
      */
     public void click(int i, int j) {
-        this.board[i][j].click();
+        this.setBit(i, j, Board.CLICKED);
     }
 
     /**
@@ -321,11 +893,11 @@ public class GameModel {
     public void uncoverAll() {
 
         // Iterate through each board position and uncover
-        for (int i = 0; i < this.width; i++) {
-            for (int j = 0; i < this.height; j++) {
-                this.board[i][j].uncover();
-            }
+        for (int i = 0; i < this.board.size(); i++) {
+            this.uncover(i);
         }
+        this.delta.clear();
+        this.delta.setFullRefresh();
     }
 
     /**
@@ -338,18 +910,20 @@ public class GameModel {
     }
 
     /**
-     * Getter method for the model's dotInfo reference
-     * at location (i,j)
+     * Getter method for a DotInfo view of the dot at location (i,j).
+     * The view reads and writes straight through to the model, a new
+     * one is made on each call so the hot paths should use the other
+     * getters instead
      *
       * @param i
      *            the x coordinate of the dot
      * @param j
      *            the y coordinate of the dot
      *
-     * @return model[i][j]
+     * @return a view of model[i][j]
      */
     public DotInfo get(int i, int j) {
-        return this.board[i][j];
+        return new DotInfo(this, i, j);
     }
 
     /**
@@ -362,20 +936,13 @@ public class GameModel {
 
     /**
      * The metod <b>isFinished</b> returns true if the game is finished, that
-     * is, all the nonmined dots are uncovered.
+     * is, all the nonmined dots are uncovered. The model keeps count of
+     * the covered safe dots so this does not look at the board.
      *
      * @return true if the game is finished, false otherwise
      */
     public boolean isFinished() {
-
-        for (int i = 0; i < this.getWidth(); i++) {
-            for (int o = 0; o < this.getHeigth(); o++) {
-                if (this.get(i, o).isCovered() && !this.get(i, o).isMined()) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return this.coveredSafe == 0;
     }
 
     /**
@@ -387,10 +954,10 @@ public class GameModel {
         String output = "";
         for (int j = 0; j < this.height; j++) {
             for (int i = 0; i < this.width; i++) {
-                if (this.board[i][j].isMined()) {
+                if (this.isMined(i, j)) {
                     output += "B ";
                 } else {
-                    output += this.board[i][j].getNeighbooringMines() + " ";
+                    output += this.getNeighbooringMines(i, j) + " ";
                 }
             }
             output += "\n";
@@ -403,6 +970,7 @@ public class GameModel {
      */
     public void setLose(){
         this.lost = true;
+        this.delta.setFullRefresh();
     }
 
     /**
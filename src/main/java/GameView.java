@@ -9,6 +9,22 @@ import javax.swing.*;
  * <b>JFrame</b> and lays out an instance of  <b>BoardView</b> (the actual game) and 
  * two instances of JButton. The action listener for the buttons is the controller.
  *
+ * After a move the view only changes the buttons of the dots listed in
+ * the <b>BoardDelta</b> of the move, and only the buttons whose icon
+ * changed get repainted. Every button is only looked at again after a
+ * reset or when the mines are shown at the end of a lost game.
+ *
+ * Boards with more than MAX_BUTTONS dots are shown with a single
+ * <b>BoardPanel</b> that paints the dots itself instead of one
+ * <b>DotButton</b> per dot. The panel sits in a scroll pane, so
+ * boards bigger than the screen can be scrolled or panned with the
+ * keys.
+ *
+ * The model is changed by the game logic thread, so the labels and a
+ * full update of the buttons read it under a stamp of
+ * <b>GameModel.startRead</b>. If a move changed it during the read,
+ * nothing read is shown and the update is tried again a frame later.
+ * The buttons of a delta only use the states listed in the delta.
  *
  * @author Owen Anderson
  * Student number: 300011168
@@ -16,14 +32,24 @@ import javax.swing.*;
  * Assignment: 2
  *
  */
-public class GameView extends JFrame {
+public class GameView extends JFrame implements DeltaListener {
 
     private static final long serialVersionUID = -4418557344980102586L;
+
+    /**
+     * Boards with more dots than this are painted by a <b>BoardPanel</b>
+     */
+    public static final int MAX_BUTTONS = 10000;
+
     private DotButton[][] dotButtons;
     private GameModel model;
     private GameController controller;
     private JPanel panel;
+    private BoardPanel boardPanel;
     private JLabel stepsLabel, minesLabel;
+    private int[] icons;
+    private Timer retry;
+    private boolean updatePending;
 
     /**
      * Constructor used for initializing the Frame
@@ -37,6 +63,19 @@ public class GameView extends JFrame {
         this.model = gameModel;
         this.controller = gameController;
 
+        // Reads the model again when a move was going on
+        this.retry = new Timer(FrameScheduler.getDelay(FrameScheduler.DEFAULT_RATE), new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (updatePending) {
+                    update();
+                } else {
+                    updateLabels();
+                }
+            }
+        });
+        this.retry.setRepeats(false);
+
         StudentInfo.display();
         setTitle("MineSweeper");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -44,12 +83,21 @@ public class GameView extends JFrame {
         setResizable(false);
         setLayout(new BorderLayout());
 
-        this.panel = new JPanel();
-        this.panel.setPreferredSize(new Dimension(28 * gameModel.getWidth() + 30, 28 * gameModel.getHeigth()));
-        add(this.panel, BorderLayout.CENTER);
+        if (gameModel.getWidth() * gameModel.getHeigth() > MAX_BUTTONS) {
+            this.boardPanel = new BoardPanel(gameModel);
+            this.boardPanel.addMouseListener(this.controller);
+            this.boardPanel.addMouseMotionListener(this.controller);
+            this.panel = this.boardPanel;
+            add(new JScrollPane(this.boardPanel), BorderLayout.CENTER);
+            setResizable(true);
+        } else {
+            this.panel = new JPanel();
+            this.panel.setPreferredSize(new Dimension(28 * gameModel.getWidth() + 30, 28 * gameModel.getHeigth()));
+            add(this.panel, BorderLayout.CENTER);
+        }
 
         this.stepsLabel = new JLabel();
-        this.updateStepsLabel();
+        this.updateStepsLabel(gameModel.getNumberOfSteps());
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
         add(bottomPanel, BorderLayout.PAGE_END);
         bottomPanel.add(this.stepsLabel);
@@ -58,20 +106,23 @@ public class GameView extends JFrame {
         this.initBottomPanelButtons(bottomPanel);
 
         this.minesLabel = new JLabel();
-        this.updateMinesLabel();
+        this.updateMinesLabel(gameModel.getMinesLeft());
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
         topPanel.add(minesLabel);
         add(topPanel, BorderLayout.PAGE_START);
 
-        this.panel.setLayout(null);
+        if (this.boardPanel == null) {
+            this.panel.setLayout(null);
 
-        this.dotButtons = new DotButton[gameModel.getWidth()][gameModel.getHeigth()];
+            this.dotButtons = new DotButton[gameModel.getWidth()][gameModel.getHeigth()];
+            this.icons = new int[gameModel.getWidth() * gameModel.getHeigth()];
 
-        for (int i = 0; i < gameModel.getWidth(); i++) {
-            for (int o = 0; o < gameModel.getHeigth(); o++) {
-                this.dotButtons[i][o] = new DotButton(i, o, getIcon(i, o));
-                this.dotButtons[i][o].addMouseListener(this.controller);
-                this.panel.add(this.dotButtons[i][o]);
+            for (int i = 0; i < gameModel.getWidth(); i++) {
+                for (int o = 0; o < gameModel.getHeigth(); o++) {
+                    this.dotButtons[i][o] = new DotButton(i, o, getIcon(i, o));
+                    this.dotButtons[i][o].addMouseListener(this.controller);
+                    this.panel.add(this.dotButtons[i][o]);
+                }
             }
         }
 
@@ -104,21 +155,54 @@ public class GameView extends JFrame {
         });
         panel.add(quit);
 
+        // Show the blank regions opening in waves
+        final JCheckBox waves = new JCheckBox("Waves");
+        waves.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Minesweeper.game.setStreamingReveal(waves.isSelected());
+            }
+        });
+        panel.add(waves);
+
         // Add restart button
     }
 
     /**
      * Updates the label at the bottom based of the step counter in the model
+     * 
+     * @param steps - The number of steps
      */
-    private void updateStepsLabel() {
-        this.stepsLabel.setText("Number of steps: " + this.model.getNumberOfSteps());
+    private void updateStepsLabel(int steps) {
+        this.stepsLabel.setText("Number of steps: " + steps);
     }
 
     /**
      * Updates the label at the top based on the mines left
+     * 
+     * @param minesLeft - The number of mines left
+     */
+    private void updateMinesLabel(int minesLeft){
+        this.minesLabel.setText("Number of mines left: " + minesLeft);
+    }
+
+    /**
+     * Updates the title and the labels, if the model can be read
+     * without a move changing it at the same time. Otherwise they are
+     * updated again a frame later
      */
-    private void updateMinesLabel(){
-        this.minesLabel.setText("Number of mines left: " + this.model.getMinesLeft());
+    private void updateLabels() {
+        long stamp = this.model.startRead();
+        long seed = this.model.getSeed();
+        int steps = this.model.getNumberOfSteps();
+        int minesLeft = this.model.getMinesLeft();
+        if (!this.model.validateRead(stamp)) {
+            this.retry.restart();
+            return;
+        }
+        setTitle("MineSweeper - seed " + seed);
+        this.updateStepsLabel(steps);
+        this.updateMinesLabel(minesLeft);
     }
 
     /**
@@ -150,20 +234,73 @@ public class GameView extends JFrame {
 
     /**
      * update the status of the board's DotButton instances based 
-     * on the current game model, then redraws the view
+     * on the current game model, then redraws the view. The icons are
+     * all read first, and only used if no move changed the model
+     * meanwhile, otherwise the update is done again a frame later
      */
     public void update() {
-        this.updateStepsLabel();
-        this.updateMinesLabel();
-        for (int i = 0; i < this.model.getWidth(); i++) {
-            for (int o = 0; o < this.model.getHeigth(); o++) {
-                this.dotButtons[i][o].setIconNumber(this.getIcon(i, o));
+        this.updatePending = false;
+        if (this.boardPanel == null) {
+            int width = this.model.getWidth();
+            int height = this.model.getHeigth();
+            long stamp = this.model.startRead();
+            for (int i = 0; i < width; i++) {
+                for (int o = 0; o < height; o++) {
+                    this.icons[o * width + i] = this.getIcon(i, o);
+                }
             }
+            if (!this.model.validateRead(stamp)) {
+                this.updatePending = true;
+                this.retry.restart();
+                return;
+            }
+            for (int i = 0; i < width; i++) {
+                for (int o = 0; o < height; o++) {
+                    this.dotButtons[i][o].setIconNumber(this.icons[o * width + i]);
+                }
+            }
+        } else {
+            this.boardPanel.refresh();
         }
+        this.updateLabels();
 
         panel.repaint();
     }
 
+    @Override
+    /**
+     * Updates only the buttons of the dots that changed during the last
+     * move, and repaints only the ones whose icon is not the same.
+     * A full refresh updates the whole board
+     *
+     * @param gameModel The model that changed
+     * @param delta The dots that changed
+     */
+    public void boardChanged(GameModel gameModel, BoardDelta delta) {
+        if (delta.isFullRefresh()) {
+            this.update();
+            return;
+        }
+
+        this.updateLabels();
+        if (this.boardPanel != null) {
+            this.boardPanel.boardChanged(gameModel, delta);
+            return;
+        }
+
+        int width = this.model.getWidth();
+        boolean lost = this.model.getLose();
+        for (int k = 0; k < delta.size(); k++) {
+            int index = delta.getIndex(k);
+            DotButton button = this.dotButtons[index % width][index / width];
+            int icon = getIcon(delta.getState(k), lost);
+            if (button.getIconNumber() != icon) {
+                button.setIconNumber(icon);
+                this.panel.repaint(button.getBounds());
+            }
+        }
+    }
+
     /**
      * returns the icon value that must be used for a given dot 
      * in the game
@@ -175,23 +312,38 @@ public class GameView extends JFrame {
      * @return the icon to use for the dot at location (i,j)
      */
     private int getIcon(int i, int j) {
-        DotInfo spot = this.model.get(i, j);
+        return getIcon(this.model.getCell(this.model.getIndex(i, j)), this.model.getLose());
+    }
+
+    /**
+     * returns the icon value that must be used for a dot in a
+     * given packed state (see <b>Board</b>)
+     * 
+     * @param cell
+     *            the packed state of the dot
+     * @param lost
+     *            true if the game is lost, the mines are then shown
+     * @return the icon to use for the dot
+     */
+    static int getIcon(int cell, boolean lost) {
+        boolean mined = (cell & Board.MINED) != 0;
+        boolean clicked = (cell & Board.CLICKED) != 0;
 
         // Special case for when the game is in the lost state
-        if(this.model.getLose()){
-            if(spot.isMined() && !spot.hasBeenClicked()){
+        if(lost){
+            if(mined && !clicked){
                 return 9; 
             }
         }
 
-        if (spot.isFlagged()) {
+        if ((cell & Board.FLAGGED) != 0) {
             return 12;
-        } else if (spot.isCovered()) {
+        } else if ((cell & Board.UNCOVERED) == 0) {
             return 11;
-        } else if (spot.isMined() && spot.hasBeenClicked()) {
+        } else if (mined && clicked) {
             return 10;
         } else {
-            return spot.getNeighbooringMines();
+            return cell & Board.NEIGHBOURS_MASK;
         }
     }
 }
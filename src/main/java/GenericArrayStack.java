@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * A stack wrapper for the LinkedList object
  * It allows for you to put in and take elements out in a last in first out manner
@@ -17,7 +19,7 @@ public class GenericArrayStack<E> implements Stack<E> {
     /**
      * Default constuctor for the GenericArrayStack
      * 
-     * @param cap The max capasity of the stack
+     * @param cap The starting capasity of the stack
      */
     public GenericArrayStack(int cap) {
         @SuppressWarnings("unchecked")
@@ -36,13 +38,14 @@ public class GenericArrayStack<E> implements Stack<E> {
     }
 
     /**
-     * Adds a new element to the top of the stack will not add if the stack is already full
+     * Adds a new element to the top of the stack, the stack doubles
+     * in size if it is already full
      * 
      * @param elem The element to put on the stack
      */
     public void push( E elem ) {
         if(this.topOfStack == this.stack.length - 1){
-            return;
+            this.stack = Arrays.copyOf(this.stack, Math.max(this.stack.length * 2, 1));
         }
         this.topOfStack++;
         this.stack[this.topOfStack] = elem;
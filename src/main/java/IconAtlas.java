@@ -0,0 +1,212 @@
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The class <b>IconAtlas</b> loads the 13 icons of the game once, from
+ * the "icons" folder of the class path, into a single image with the
+ * icons side by side. Drawing a dot is then one copy of a part of that
+ * image.
+ *
+ * The icons are 28 pixels wide. The atlas also keeps the whole image
+ * scaled to other sizes, made the first time a size is asked for, so
+ * the zoom levels of the board and screens with more than one pixel per
+ * point (HiDPI) draw icons of their real size instead of scaling every
+ * icon while painting.
+ *
+ * When the icons are not on the class path, for example when the game
+ * is run straight from the sources, they are read from the
+ * src/main/resources/icons folder instead.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class IconAtlas {
+
+    /**
+     * The size in pixels of the icons
+     */
+    public static final int ICON_SIZE = 28;
+
+    private static final String[] FILE_NAMES = {
+        "Minesweeper_0.png", "Minesweeper_1.png", "Minesweeper_2.png",
+        "Minesweeper_3.png", "Minesweeper_4.png", "Minesweeper_5.png",
+        "Minesweeper_6.png", "Minesweeper_7.png", "Minesweeper_8.png",
+        "Minesweeper_mine.png", "Minesweeper_mineSelected.png",
+        "Minesweeper_unopened_square.png", "Minesweeper_flag.png"
+    };
+
+    private static IconAtlas atlas;
+
+    private HashMap<Integer, BufferedImage> sheets;
+
+    /**
+     * Gets the atlas, loading the icons the first time
+     *
+     * @return The atlas
+     */
+    public static synchronized IconAtlas get() {
+        if (atlas == null) {
+            atlas = new IconAtlas();
+        }
+        return atlas;
+    }
+
+    /**
+     * Constructor, loads all the icons in one image
+     */
+    private IconAtlas() {
+        BufferedImage sheet = new BufferedImage(ICON_SIZE * FILE_NAMES.length, ICON_SIZE,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sheet.createGraphics();
+        for (int i = 0; i < FILE_NAMES.length; i++) {
+            BufferedImage icon = load(FILE_NAMES[i]);
+            if (icon != null) {
+                g.drawImage(icon, i * ICON_SIZE, 0, ICON_SIZE, ICON_SIZE, null);
+            } else {
+                System.out.println("Could not load icon: " + FILE_NAMES[i]);
+            }
+        }
+        g.dispose();
+
+        this.sheets = new HashMap<Integer, BufferedImage>();
+        this.sheets.put(ICON_SIZE, sheet);
+    }
+
+    /**
+     * Reads an icon from the class path, or from the resources folder
+     * if it is not on the class path
+     *
+     * @param name The file name of the icon
+     * @return The icon, or null if it could not be read
+     */
+    private static BufferedImage load(String name) {
+        try {
+            InputStream in = IconAtlas.class.getResourceAsStream("/icons/" + name);
+            if (in != null) {
+                try {
+                    return ImageIO.read(in);
+                } finally {
+                    in.close();
+                }
+            }
+            File file = new File("src/main/resources/icons/" + name);
+            if (file.exists()) {
+                return ImageIO.read(file);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not read icon " + name + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of icons
+     *
+     * @return The number of icons
+     */
+    public int getNumberOfIcons() {
+        return FILE_NAMES.length;
+    }
+
+    /**
+     * Gets the image of all the icons at a given size, side by side.
+     * The image is made the first time a size is asked for
+     *
+     * @param size The size in pixels of an icon
+     * @return The image of the icons
+     */
+    public synchronized BufferedImage getSheet(int size) {
+        BufferedImage sheet = this.sheets.get(size);
+        if (sheet == null) {
+            sheet = scale(this.sheets.get(ICON_SIZE), size);
+            this.sheets.put(size, sheet);
+        }
+        return sheet;
+    }
+
+    /**
+     * Gets one icon at full size. It shares the memory of the atlas
+     *
+     * @param icon The number of the icon, see <b>DotButton</b>
+     * @return The image of the icon
+     */
+    public BufferedImage getIcon(int icon) {
+        return this.getSheet(ICON_SIZE).getSubimage(icon * ICON_SIZE, 0, ICON_SIZE, ICON_SIZE);
+    }
+
+    /**
+     * Draws an icon in a square of the graphics
+     *
+     * @param g The graphics to draw on
+     * @param icon The number of the icon
+     * @param x The x coordinate of the square
+     * @param y The y coordinate of the square
+     * @param pixels The size of the square
+     * @param scale The number of device pixels per pixel of the
+     *            graphics, more than 1 on HiDPI screens
+     */
+    public void draw(Graphics g, int icon, int x, int y, int pixels, double scale) {
+        this.draw(g, this.getSheet((int) Math.round(pixels * scale)), icon, x, y, pixels);
+    }
+
+    /**
+     * Draws an icon in a square of the graphics from an image of the
+     * icons got from <b>getSheet</b>. Painting many dots of the same
+     * size should get the image once and use this
+     *
+     * @param g The graphics to draw on
+     * @param sheet The image of the icons at the size they are drawn
+     * @param icon The number of the icon
+     * @param x The x coordinate of the square
+     * @param y The y coordinate of the square
+     * @param pixels The size of the square
+     */
+    public void draw(Graphics g, BufferedImage sheet, int icon, int x, int y, int pixels) {
+        int size = sheet.getHeight();
+        g.drawImage(sheet, x, y, x + pixels, y + pixels, icon * size, 0, icon * size + size, size, null);
+    }
+
+    /**
+     * Scales the image of the icons so each icon has a new size. Going
+     * down it halves the size a few times so the small icons stay
+     * smooth
+     *
+     * @param sheet The image of the icons at full size
+     * @param size The new size of an icon
+     * @return The scaled image
+     */
+    private BufferedImage scale(BufferedImage sheet, int size) {
+        int icons = FILE_NAMES.length;
+        BufferedImage current = sheet;
+        int currentSize = ICON_SIZE;
+        do {
+            int next = Math.max(size, currentSize / 2);
+            if (size > currentSize) {
+                next = size;
+            }
+            BufferedImage scaled = new BufferedImage(next * icons, next, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            for (int i = 0; i < icons; i++) {
+                g.drawImage(current, i * next, 0, (i + 1) * next, next,
+                        i * currentSize, 0, (i + 1) * currentSize, currentSize, null);
+            }
+            g.dispose();
+            current = scaled;
+            currentSize = next;
+        } while (currentSize != size);
+        return current;
+    }
+}
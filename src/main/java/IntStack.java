@@ -0,0 +1,153 @@
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * A stack of primitive ints, used to keep dot indexes without boxing
+ * them. The array doubles when the stack is full, so it only takes as
+ * much memory as the most elements it held, and <b>clear</b> empties it
+ * without giving the memory back so it can be reused.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class IntStack implements Stack<Integer> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] stack;
+    private int size;
+
+    /**
+     * Default constuctor for the IntStack
+     */
+    public IntStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constuctor for the IntStack with a starting capacity
+     * 
+     * @param cap The starting capasity of the stack, it grows when needed
+     */
+    public IntStack(int cap) {
+        this.stack = new int[Math.max(cap, 1)];
+    }
+
+    /**
+     * Checks if the stack is empty
+     * 
+     * @return True if empty false if not
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the number of elements on the stack
+     * 
+     * @return The number of elements
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a new element to the top of the stack, growing it if full
+     * 
+     * @param elem The element to put on the stack
+     */
+    public void pushInt(int elem) {
+        if (this.size == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.size * 2);
+        }
+        this.stack[this.size++] = elem;
+    }
+
+    /**
+     * Removes and returns the element on the top of the stack
+     * 
+     * @return The element on the top of the stack
+     * 
+     * @throws EmptyStackException if the stack is empty
+     */
+    public int popInt() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        return this.stack[--this.size];
+    }
+
+    /**
+     * Just looks at the top of the stack (doesn't remove)
+     * 
+     * @return The element at the top of the stack
+     * 
+     * @throws EmptyStackException if the stack is empty
+     */
+    public int peekInt() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        return this.stack[this.size - 1];
+    }
+
+    /**
+     * Checks if an element is on the stack, looking at every element
+     * 
+     * @param elem The element to look for
+     * 
+     * @return True if it is on the stack
+     */
+    public boolean contains(int elem) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.stack[i] == elem) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every element, the memory is kept for the next uses
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Adds a new element to the top of the stack
+     * 
+     * @param elem The element to put on the stack
+     */
+    public void push(Integer elem) {
+        this.pushInt(elem);
+    }
+
+    /**
+     * Removes and returns the element on the top of the stack
+     * 
+     * @return The element on the top of the stack null if the stack is empty
+     */
+    public Integer pop() {
+        if (this.size == 0) {
+            return null;
+        }
+        return this.popInt();
+    }
+
+    /**
+     * Just looks at the top of the stack (doesn't remove)
+     * 
+     * @return The element at the top of the stack null if empty
+     */
+    public Integer peek() {
+        if (this.size == 0) {
+            return null;
+        }
+        return this.peekInt();
+    }
+}
@@ -0,0 +1,217 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The class <b>MappedBoard</b> is a <b>Board</b> kept in a memory mapped
+ * file instead of the Java heap. The operating system pages the dots in
+ * and out as they are used, so a board can be bigger than the heap and
+ * it is still there when the program is started again.
+ *
+ * The file starts with a small header (the size of the game) followed
+ * by one byte per dot. The dots are mapped in segments of 1 GB since a
+ * single mapping can not be bigger than 2 GB.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class MappedBoard implements Board {
+
+    private static final int MAGIC = 0x4D696E65; // "Mine"
+    private static final int HEADER_SIZE = 64;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    private static final int CLEAR_CHUNK = 1 << 16;
+
+    private RandomAccessFile file;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] segments;
+    private int width, height, numberOfMines, size;
+
+    /**
+     * Constructor, maps an already opened file. Use <b>create</b> or
+     * <b>open</b> to get an instance
+     *
+     * @param file The file holding the board
+     * @param width The width of the board
+     * @param height The height of the board
+     * @param numberOfMines The number of mines in the board
+     *
+     * @throws IOException If the file can not be mapped
+     */
+    private MappedBoard(RandomAccessFile file, int width, int height, int numberOfMines) throws IOException {
+        this.file = file;
+        this.width = width;
+        this.height = height;
+        this.numberOfMines = numberOfMines;
+        this.size = width * height;
+
+        FileChannel channel = file.getChannel();
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+        int numSegments = (int) ((((long) this.size) + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            long start = ((long) i) << SEGMENT_SHIFT;
+            long length = Math.min(1L << SEGMENT_SHIFT, this.size - start);
+            this.segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + start, length);
+        }
+    }
+
+    /**
+     * Creates a new board file, any previous content of the file is lost
+     *
+     * @param path The file to store the board in
+     * @param width The width of the board
+     * @param height The height of the board
+     * @param numberOfMines The number of mines in the board
+     *
+     * @return The new board, every dot is covered and not mined
+     *
+     * @throws IOException If the file can not be created
+     * @throws IllegalArgumentException If the board would have more
+     *             than GameModel.MAX_DOTS dots
+     */
+    public static MappedBoard create(File path, int width, int height, int numberOfMines) throws IOException {
+        GameModel.checkSize(width, height);
+
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        file.setLength(0);
+        file.setLength(HEADER_SIZE + ((long) width) * height);
+
+        MappedBoard board = new MappedBoard(file, width, height, numberOfMines);
+        board.header.putInt(0, MAGIC);
+        board.header.putInt(4, width);
+        board.header.putInt(8, height);
+        board.header.putInt(12, numberOfMines);
+        return board;
+    }
+
+    /**
+     * Opens a board file made by <b>create</b>, the dots are left as
+     * they were
+     *
+     * @param path The file holding the board
+     *
+     * @return The board stored in the file
+     *
+     * @throws IOException If the file can not be read or is not a board
+     */
+    public static MappedBoard open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        if (file.length() < HEADER_SIZE || file.readInt() != MAGIC) {
+            file.close();
+            throw new IOException("Not a board file: " + path);
+        }
+        int width = file.readInt();
+        int height = file.readInt();
+        int numberOfMines = file.readInt();
+        if (width < 1 || height < 1 || ((long) width) * height > GameModel.MAX_DOTS) {
+            file.close();
+            throw new IOException("Bad board size " + width + "x" + height + " in " + path);
+        }
+        if (file.length() != HEADER_SIZE + ((long) width) * height) {
+            file.close();
+            throw new IOException("Truncated board file: " + path);
+        }
+        return new MappedBoard(file, width, height, numberOfMines);
+    }
+
+    /**
+     * Gets the width of the stored board
+     *
+     * @return The width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the height of the stored board
+     *
+     * @return The height
+     */
+    public int getHeigth() {
+        return this.height;
+    }
+
+    /**
+     * Gets the number of mines of the stored board
+     *
+     * @return The number of mines
+     */
+    public int getNumberOfMines() {
+        return this.numberOfMines;
+    }
+
+    /**
+     * Gets the number of dots on the board
+     *
+     * @return The number of dots
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the packed state of a dot
+     *
+     * @param index The index of the dot
+     * @return The state of the dot between 0 and 255
+     */
+    public int get(int index) {
+        return this.segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK) & 0xFF;
+    }
+
+    /**
+     * Sets the packed state of a dot
+     *
+     * @param index The index of the dot
+     * @param cell The new state of the dot
+     */
+    public void set(int index, int cell) {
+        this.segments[index >>> SEGMENT_SHIFT].put(index & SEGMENT_MASK, (byte) cell);
+    }
+
+    /**
+     * Sets every dot back to covered and not mined
+     */
+    public void clear() {
+        byte[] zeros = new byte[CLEAR_CHUNK];
+        for (int i = 0; i < this.segments.length; i++) {
+            MappedByteBuffer segment = this.segments[i];
+            segment.clear();
+            while (segment.remaining() > 0) {
+                segment.put(zeros, 0, Math.min(zeros.length, segment.remaining()));
+            }
+            segment.clear();
+        }
+    }
+
+    /**
+     * Writes all the changes made to the dots to the disk
+     */
+    public void force() {
+        this.header.force();
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i].force();
+        }
+    }
+
+    /**
+     * Writes the changes to the disk and closes the file. The board
+     * can not be used after it has been closed
+     *
+     * @throws IOException If the file can not be closed
+     */
+    public void close() throws IOException {
+        this.force();
+        this.file.close();
+    }
+}
@@ -1,3 +1,7 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * The class <b>Mineseeper</b> launches the game
  *
@@ -24,6 +28,18 @@ public class Minesweeper {
      * 5 for heigth and 1 for number of mines).
      * Additionally, the maximum number of mines is capped at
      * width*heigth -1
+     * A fourth parameter can be passed, the seed of the first board
+     * (a long), so a game can be replayed from the seed shown in the
+     * title of the window. If the seed does not parse, a message is
+     * printed and a random seed is used, the other three parameters
+     * are still used.
+     * Boards with more than GameModel.MAX_DOTS dots can not be played,
+     * the default values are used instead.
+     * The parameters can start with "-file" and the name of a file to
+     * keep the board in a <b>MappedBoard</b> instead of the heap, for
+     * boards too big for the memory. If the file exists and no size is
+     * given, the game stored in it is played again. Otherwise a new
+     * board of the given (or default) size is made in the file.
      * 
      * @param args
      *            command line parameters
@@ -32,8 +48,23 @@ public class Minesweeper {
         int width   = DEFAULT_WIDTH;
         int heigth  = DEFAULT_HEIGTH;
         int numberOfMines = DEFAULT_MINES;
+        Long seed = null;
+        File boardFile = null;
+
+        if (args.length >= 2 && args[0].equals("-file")) {
+            boardFile = new File(args[1]);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        boolean sizeGiven = args.length == 3 || args.length == 4;
  
-        if (args.length == 3) {
+        if (args.length == 4) {
+            try{
+                seed = Long.parseLong(args[3]);
+            } catch(NumberFormatException e){
+                System.out.println("Invalid seed, using a random one...");
+            }
+        }
+        if (sizeGiven) {
             try{
                 width = Integer.parseInt(args[0]);
                 if(width<10){
@@ -57,6 +88,13 @@ public class Minesweeper {
                 numberOfMines = DEFAULT_MINES;
             }
         }
+        if((long) width*heigth > GameModel.MAX_DOTS) {
+            System.out.println("Board too large: " + width + "x" + heigth 
+                + ", using default...");
+            width   = DEFAULT_WIDTH;
+            heigth  = DEFAULT_HEIGTH;
+            numberOfMines = DEFAULT_MINES;
+        }
         if(numberOfMines >= width*heigth) {
             System.out.println("Too many mines: " + numberOfMines 
                 + " mines on " + (width*heigth) + " spots. Using " 
@@ -64,8 +102,54 @@ public class Minesweeper {
             numberOfMines = (width*heigth - 1);
         }
    
-        game = new GameController(width, heigth,numberOfMines);
-    }
+        // Load the icons before the window shows up
+        IconAtlas.get();
 
+        if (boardFile != null) {
+            game = new GameController(openBoardFile(boardFile, sizeGiven, 
+                width, heigth, numberOfMines, seed));
+        } else if (seed == null) {
+            game = new GameController(width, heigth,numberOfMines);
+        } else {
+            game = new GameController(width, heigth,numberOfMines, seed);
+        }
+    }
 
+    /**
+     * Makes the model of a game kept in a board file. An existing file
+     * is played again if no size was given, otherwise a new board is
+     * made in the file. The program stops if the file can not be used
+     * 
+     * @param boardFile
+     *            the file of the board
+     * @param sizeGiven
+     *            true if the size of the board was given
+     * @param width
+     *            the width of a new board
+     * @param heigth
+     *            the heigth of a new board
+     * @param numberOfMines
+     *            the number of mines of a new board
+     * @param seed
+     *            the seed of a new board, or null for a random one
+     * @return the model of the game
+     */
+    private static GameModel openBoardFile(File boardFile, boolean sizeGiven, 
+            int width, int heigth, int numberOfMines, Long seed) {
+        try {
+            if (boardFile.exists() && !sizeGiven) {
+                return new GameModel(MappedBoard.open(boardFile));
+            }
+            MappedBoard board = MappedBoard.create(boardFile, width, heigth, numberOfMines);
+            if (seed == null) {
+                return new GameModel(width, heigth, numberOfMines, board);
+            }
+            return new GameModel(width, heigth, numberOfMines, board, 
+                new SplittableRandomSource(0), seed);
+        } catch (IOException e) {
+            System.out.println("Could not use the board file: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
 }
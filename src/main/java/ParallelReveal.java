@@ -0,0 +1,312 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class <b>ParallelReveal</b> is a <b>RevealEngine</b> for very large
+ * boards. It does a breadth first search of the blank region one level
+ * at a time, and every level is done by all the threads of the common
+ * <b>ForkJoinPool</b>.
+ *
+ * The board is cut in bands of rows and each band is owned by a single
+ * task, which is the only one to write its dots. A level is done in two
+ * steps: first each band sends the neighbours of its frontier to the
+ * band that owns them, then each band goes through what it received,
+ * uncovers it and keeps the new blank dots as its next frontier. So no
+ * locks or atomic operations are needed, and since the set of dots
+ * uncovered does not depend on the order, the result is the same as the
+ * sequential fill.
+ *
+ * The threads are only used for big regions: while the frontier is
+ * smaller than FRONTIER_THRESHOLD the levels are done on the calling
+ * thread, so a small region costs about as much as with the sequential
+ * fill. Boards too small to ever have such a frontier are left to
+ * another engine.
+ *
+ * A dot is sent once per fill. Neighbours already uncovered are not
+ * sent, and dots sent or received are marked with the CLICKED bit,
+ * which a covered dot never has otherwise. The owner of a dot marks it
+ * when it sends it to itself, other bands only send it if it is not
+ * marked and the owner drops the copies it already has. The mark goes
+ * away when the dot is uncovered, and at the end of the fill for
+ * flagged dots that stay covered.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ParallelReveal implements RevealEngine {
+
+    /**
+     * Boards with fewer dots than this are left to the fallback engine,
+     * their regions are too small to use the threads
+     */
+    public static final int BOARD_THRESHOLD = 1 << 16;
+
+    /**
+     * Levels with a smaller frontier than this are done on one thread
+     */
+    public static final int FRONTIER_THRESHOLD = 1 << 12;
+
+    private RevealEngine fallback;
+    private int frontierThreshold;
+    private GameModel model;
+    private int width, height, bandRows, numBands;
+    private IntStack[] frontiers, nextFrontiers, seenFlags, uncovered;
+    private IntStack[][] outboxes;
+
+    /**
+     * Constructor
+     *
+     * @param fallback The engine used for boards under BOARD_THRESHOLD
+     */
+    public ParallelReveal(RevealEngine fallback) {
+        this(fallback, FRONTIER_THRESHOLD);
+    }
+
+    /**
+     * Constructor with another frontier size to start the threads, for
+     * the tests
+     *
+     * @param fallback The engine used for boards under BOARD_THRESHOLD
+     * @param frontierThreshold The smallest frontier done by the threads
+     */
+    ParallelReveal(RevealEngine fallback, int frontierThreshold) {
+        this.fallback = fallback;
+        this.frontierThreshold = frontierThreshold;
+    }
+
+    /**
+     * Uncovers the blank region of a dot and its border
+     *
+     * @param model The model of the game
+     * @param x The column of the selected dot
+     * @param y The row of the selected dot
+     */
+    public void reveal(GameModel model, int x, int y) {
+        if (model.getWidth() * model.getHeigth() < BOARD_THRESHOLD) {
+            this.fallback.reveal(model, x, y);
+            return;
+        }
+
+        this.setUp(model);
+        int start = model.getIndex(x, y);
+        this.frontiers[this.bandOf(start)].pushInt(start);
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int frontierSize = 1;
+        while (frontierSize > 0) {
+            if (frontierSize < this.frontierThreshold) {
+                for (int b = 0; b < this.numBands; b++) {
+                    this.sendNeighbours(b);
+                }
+                for (int b = 0; b < this.numBands; b++) {
+                    this.receive(b);
+                }
+            } else {
+                pool.invoke(new LevelTask(0, this.numBands, true));
+                pool.invoke(new LevelTask(0, this.numBands, false));
+            }
+
+            IntStack[] swap = this.frontiers;
+            this.frontiers = this.nextFrontiers;
+            this.nextFrontiers = swap;
+            frontierSize = 0;
+            for (int b = 0; b < this.numBands; b++) {
+                frontierSize += this.frontiers[b].size();
+            }
+        }
+
+        // The counters and delta of the model are not thread safe so
+        // add the dots of every band here, in the order of the bands.
+        // Flagged dots stay covered, take their mark away
+        for (int b = 0; b < this.numBands; b++) {
+            model.addRevealed(this.uncovered[b]);
+            IntStack flags = this.seenFlags[b];
+            while (!flags.isEmpty()) {
+                int index = flags.popInt();
+                model.getBoard().set(index, model.getCell(index) & ~Board.CLICKED);
+            }
+        }
+        this.model = null;
+    }
+
+    /**
+     * Makes the buffers for the size of the board, they are kept for
+     * the next reveals on a board of the same size
+     *
+     * @param model The model of the game
+     */
+    private void setUp(GameModel model) {
+        this.model = model;
+        if (this.frontiers != null && model.getWidth() == this.width && model.getHeigth() == this.height) {
+            return;
+        }
+
+        this.width = model.getWidth();
+        this.height = model.getHeigth();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        this.numBands = Math.min(this.height, Math.max(1, parallelism * 4));
+        this.bandRows = (this.height + this.numBands - 1) / this.numBands;
+        this.numBands = (this.height + this.bandRows - 1) / this.bandRows;
+
+        this.frontiers = newStacks(this.numBands);
+        this.nextFrontiers = newStacks(this.numBands);
+        this.seenFlags = newStacks(this.numBands);
+        this.outboxes = new IntStack[this.numBands][];
+        for (int b = 0; b < this.numBands; b++) {
+            this.outboxes[b] = newStacks(this.numBands);
+        }
+        this.uncovered = newStacks(this.numBands);
+    }
+
+    /**
+     * Makes an array of empty stacks
+     *
+     * @param count The number of stacks
+     * @return The stacks
+     */
+    private static IntStack[] newStacks(int count) {
+        IntStack[] buffers = new IntStack[count];
+        for (int i = 0; i < count; i++) {
+            buffers[i] = new IntStack();
+        }
+        return buffers;
+    }
+
+    /**
+     * Gets the band that owns a dot
+     *
+     * @param index The index of the dot
+     * @return The band of the dot
+     */
+    private int bandOf(int index) {
+        return index / this.width / this.bandRows;
+    }
+
+    /**
+     * First step of a level: sends the neighbours of the frontier of a
+     * band to the bands that own them, if they are not uncovered or
+     * marked yet. Only marks dots of the band, the dots of other bands
+     * are only read, and their UNCOVERED bit does not change during
+     * this step
+     *
+     * @param band The band
+     */
+    private void sendNeighbours(int band) {
+        IntStack frontier = this.frontiers[band];
+        IntStack[] outbox = this.outboxes[band];
+        Board board = this.model.getBoard();
+        while (!frontier.isEmpty()) {
+            int index = frontier.popInt();
+            int x = index % this.width;
+            int y = index / this.width;
+            for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, this.height - 1); j++) {
+                int owner = j / this.bandRows;
+                for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, this.width - 1); i++) {
+                    int next = j * this.width + i;
+                    int cell = board.get(next);
+                    if ((cell & (Board.UNCOVERED | Board.CLICKED)) != 0) {
+                        continue;
+                    }
+                    if (owner == band) {
+                        board.set(next, cell | Board.CLICKED);
+                    }
+                    outbox[owner].pushInt(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Second step of a level: uncovers the dots a band received. Blank
+     * dots make the next frontier of the band. Only writes dots owned
+     * by the band
+     *
+     * @param band The band
+     */
+    private void receive(int band) {
+        // The dots sent by the band itself are marked already and sent
+        // once, the ones of other bands are marked when first received
+        IntStack inbox = this.outboxes[band][band];
+        while (!inbox.isEmpty()) {
+            this.receiveDot(band, inbox.popInt());
+        }
+        Board board = this.model.getBoard();
+        for (int src = 0; src < this.numBands; src++) {
+            inbox = this.outboxes[src][band];
+            while (!inbox.isEmpty()) {
+                int index = inbox.popInt();
+                int cell = board.get(index);
+                if ((cell & (Board.UNCOVERED | Board.CLICKED)) == 0) {
+                    board.set(index, cell | Board.CLICKED);
+                    this.receiveDot(band, index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Uncovers a marked dot unless it is flagged, and adds it to the
+     * next frontier of its band if it is blank
+     *
+     * @param band The band of the dot
+     * @param index The index of the dot
+     */
+    private void receiveDot(int band, int index) {
+        int cell = this.model.getCell(index);
+        boolean blank = (cell & (Board.NEIGHBOURS_MASK | Board.MINED)) == 0;
+        if ((cell & Board.FLAGGED) != 0) {
+            // Flagged dots stay covered, blank ones still extend the region
+            this.seenFlags[band].pushInt(index);
+        } else {
+            this.model.getBoard().set(index, (cell & ~Board.CLICKED) | Board.UNCOVERED);
+            this.uncovered[band].pushInt(index);
+        }
+        if (blank) {
+            this.nextFrontiers[band].pushInt(index);
+        }
+    }
+
+    /**
+     * A fork join task doing one step of a level for a range of bands
+     */
+    private class LevelTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -6052218340923155473L;
+        private int firstBand, endBand;
+        private boolean sending;
+
+        /**
+         * Constructor for a task over the bands [firstBand, endBand)
+         *
+         * @param firstBand The first band
+         * @param endBand The band after the last band
+         * @param sending True for the first step, false for the second
+         */
+        LevelTask(int firstBand, int endBand, boolean sending) {
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+            this.sending = sending;
+        }
+
+        @Override
+        /**
+         * Splits the range in two until there is a single band left,
+         * then does the step for that band
+         */
+        protected void compute() {
+            if (this.endBand - this.firstBand > 1) {
+                int middle = (this.firstBand + this.endBand) >>> 1;
+                invokeAll(new LevelTask(this.firstBand, middle, this.sending),
+                        new LevelTask(middle, this.endBand, this.sending));
+            } else if (this.sending) {
+                sendNeighbours(this.firstBand);
+            } else {
+                receive(this.firstBand);
+            }
+        }
+    }
+}
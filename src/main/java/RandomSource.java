@@ -0,0 +1,52 @@
+/**
+ * The interface <b>RandomSource</b> is a source of random numbers used to
+ * generate the boards. Sources are seeded so the same seed always gives
+ * the same numbers, and they can be split into independent sources so
+ * several threads can generate parts of the same board.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public interface RandomSource {
+
+    /**
+     * Returns a random number between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound the upper bound, must be positive
+     * @return the random number
+     */
+
+    public abstract int nextInt( int bound );
+
+    /**
+     * Returns a random long.
+     *
+     * @return the random number
+     */
+
+    public abstract long nextLong();
+
+    /**
+     * Returns a new source, independent of this one, and advances
+     * this source.
+     *
+     * @return the new source
+     */
+
+    public abstract RandomSource split();
+
+    /**
+     * Returns a new source of the same kind as this one, starting
+     * from a given seed.
+     *
+     * @param seed the seed of the new source
+     * @return the new source
+     */
+
+    public abstract RandomSource withSeed( long seed );
+
+}
@@ -0,0 +1,27 @@
+/**
+ * A <b>RevealEngine</b> computes which dots get uncovered when a dot with
+ * no mine around it is selected. The dots uncovered are the blank region
+ * connected to the selected dot and all the dots next to that region.
+ * Flagged dots are left covered, but the region still goes through them.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public interface RevealEngine {
+
+    /**
+     * Uncovers the blank region of a dot and its border. The dot itself
+     * must already be uncovered.
+     *
+     * @param model the model of the game
+     * @param x the column of the selected dot, it has zero neighbooring mines
+     * @param y the row of the selected dot
+     */
+
+    public abstract void reveal( GameModel model, int x, int y );
+
+}
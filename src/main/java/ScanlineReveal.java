@@ -0,0 +1,161 @@
+/**
+ * The class <b>ScanlineReveal</b> is a <b>RevealEngine</b> that fills
+ * the blank region one horizontal run at a time. A run of blank dots is
+ * uncovered in one go, then the rows above and below it are scanned and
+ * only the start of each run of blank dots found there is pushed on the
+ * stack. Numbered dots next to the runs are uncovered as the border.
+ *
+ * Compared to pushing every blank dot, the stack only sees one entry per
+ * run and each dot is looked at a few times instead of once per blank
+ * neighbour.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ScanlineReveal implements RevealEngine {
+
+    private IntStack stack = new IntStack();
+    private IntStack seenFlags = new IntStack();
+    private GameModel model;
+    private int width, height;
+
+    /**
+     * Uncovers the blank region of a dot and its border
+     *
+     * @param model The model of the game
+     * @param x The column of the selected dot
+     * @param y The row of the selected dot
+     */
+    public void reveal(GameModel model, int x, int y) {
+        this.model = model;
+        this.width = model.getWidth();
+        this.height = model.getHeigth();
+        this.stack.clear();
+        this.seenFlags.clear();
+
+        this.fillRun(x, y);
+        while (!this.stack.isEmpty()) {
+            int index = this.stack.popInt();
+            if (!this.isVisited(index)) {
+                this.fillRun(index % this.width, index / this.width);
+            }
+        }
+        this.model = null;
+    }
+
+    /**
+     * Uncovers the run of blank dots going through (x,y), its two ends
+     * and the dots above and below it, and pushes the runs of blank dots
+     * found above and below
+     *
+     * @param x The column of a blank dot of the run
+     * @param y The row of the run
+     */
+    private void fillRun(int x, int y) {
+        int row = y * this.width;
+        int left = x;
+        int right = x;
+        while (left > 0 && this.isPending(row + left - 1)) {
+            left--;
+        }
+        while (right < this.width - 1 && this.isPending(row + right + 1)) {
+            right++;
+        }
+
+        for (int i = left; i <= right; i++) {
+            this.visit(row + i);
+        }
+
+        int first = Math.max(left - 1, 0);
+        int last = Math.min(right + 1, this.width - 1);
+        this.uncoverBorder(row + first);
+        this.uncoverBorder(row + last);
+        if (y > 0) {
+            this.scanRow(row - this.width, first, last);
+        }
+        if (y < this.height - 1) {
+            this.scanRow(row + this.width, first, last);
+        }
+    }
+
+    /**
+     * Looks at the dots [first, last] of a row next to a run. Numbered
+     * dots are uncovered and the start of each run of blank dots that
+     * was not visited yet is pushed
+     *
+     * @param row The index of the first dot of the row
+     * @param first The first column to look at
+     * @param last The last column to look at
+     */
+    private void scanRow(int row, int first, int last) {
+        boolean inRun = false;
+        for (int i = first; i <= last; i++) {
+            int index = row + i;
+            if (this.isPending(index)) {
+                if (!inRun) {
+                    this.stack.pushInt(index);
+                    inRun = true;
+                }
+            } else {
+                inRun = false;
+                this.uncoverBorder(index);
+            }
+        }
+    }
+
+    /**
+     * Checks if a dot is blank and was not visited yet
+     *
+     * @param index The index of the dot
+     * @return True if the dot still has to be filled
+     */
+    private boolean isPending(int index) {
+        int cell = this.model.getCell(index);
+        return (cell & (Board.NEIGHBOURS_MASK | Board.MINED)) == 0 && !this.isVisited(index);
+    }
+
+    /**
+     * Checks if a dot was already filled. Flagged dots stay covered so
+     * they are remembered on the side
+     *
+     * @param index The index of the dot
+     * @return True if the dot was filled
+     */
+    private boolean isVisited(int index) {
+        int cell = this.model.getCell(index);
+        if ((cell & Board.UNCOVERED) != 0) {
+            return true;
+        }
+        return (cell & Board.FLAGGED) != 0 && this.seenFlags.contains(index);
+    }
+
+    /**
+     * Marks a blank dot as filled, uncovering it unless it is flagged
+     *
+     * @param index The index of the dot
+     */
+    private void visit(int index) {
+        if ((this.model.getCell(index) & Board.FLAGGED) == 0) {
+            this.model.uncover(index);
+            return;
+        }
+        if (!this.isVisited(index)) {
+            this.seenFlags.pushInt(index);
+        }
+    }
+
+    /**
+     * Uncovers a dot of the border of the region unless it is flagged
+     *
+     * @param index The index of the dot
+     */
+    private void uncoverBorder(int index) {
+        if ((this.model.getCell(index) & Board.FLAGGED) == 0) {
+            this.model.uncover(index);
+        }
+    }
+}
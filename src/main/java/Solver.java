@@ -0,0 +1,381 @@
+import java.util.BitSet;
+
+/**
+ * The class <b>Solver</b> finds the dots that are sure to be safe and
+ * the dots that are sure to be mines, from what the player can see of
+ * the board: which dots are covered, the numbers of the uncovered dots
+ * and the flags. It never looks at where the mines really are. The
+ * flags are taken to be right.
+ *
+ * Each uncovered number gives a rule: its covered neighbours that are
+ * not known yet hold its number minus the mines already known around
+ * it. Two rules are used:
+ * - one number at a time: if no mine is left around it all its unknown
+ * neighbours are safe, if as many mines are left as unknown neighbours
+ * they are all mines
+ * - two numbers at a time: if the unknown neighbours of one number are
+ * all neighbours of another close number, the other neighbours of the
+ * second number hold the difference of the mines left
+ *
+ * The solver keeps the frontier, the uncovered numbers that still have
+ * unknown neighbours, and a list of the numbers to look at again. It is
+ * a <b>DeltaListener</b>: after each move only the dots of the delta
+ * and the numbers around them are looked at, so a step of the solver
+ * costs as much as the part of the frontier that changed, not the
+ * whole board. Only a full refresh (a new board) makes it look at
+ * every dot again.
+ *
+ * To run a board without the view:
+ * <pre>
+ * Solver solver = new Solver(model);
+ * while (solver.solve() &gt; 0) {
+ *     // uncover solver.getSafe() in the model
+ *     solver.boardChanged(model, model.takeDelta());
+ * }
+ * </pre>
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class Solver implements DeltaListener {
+
+    private GameModel model;
+    private int width, height;
+
+    private BitSet knownSafe, knownMines;
+    private BitSet frontier;
+    private int frontierSize;
+
+    // The numbers to look at again, each one listed once
+    private IntStack dirty;
+    private BitSet queued;
+
+    // The dots found and not taken yet
+    private IntStack safeFound, minesFound;
+
+    private int[] neighbours = new int[8];
+    private int[] unknownA = new int[8];
+    private int[] unknownB = new int[8];
+    private int[] difference = new int[8];
+    private int remaining;
+
+    /**
+     * Constructor, looks at the whole board once
+     *
+     * @param model The model of the game
+     */
+    public Solver(GameModel model) {
+        this.model = model;
+        this.width = model.getWidth();
+        this.height = model.getHeigth();
+        this.knownSafe = new BitSet();
+        this.knownMines = new BitSet();
+        this.frontier = new BitSet();
+        this.queued = new BitSet();
+        this.dirty = new IntStack();
+        this.safeFound = new IntStack();
+        this.minesFound = new IntStack();
+        this.rebuild();
+    }
+
+    /**
+     * Forgets everything and lists again every uncovered dot to be
+     * looked at. Only needed when the whole board changed
+     */
+    public void rebuild() {
+        this.knownSafe.clear();
+        this.knownMines.clear();
+        this.frontier.clear();
+        this.frontierSize = 0;
+        this.queued.clear();
+        this.dirty.clear();
+        this.safeFound.clear();
+        this.minesFound.clear();
+
+        for (int y = 0; y < this.height; y++) {
+            for (int x = 0; x < this.width; x++) {
+                if (!this.model.isCovered(x, y)) {
+                    this.queue(y * this.width + x);
+                }
+            }
+        }
+    }
+
+    @Override
+    /**
+     * Lists the dots changed by a move and the numbers around them to
+     * be looked at again by the next <b>solve</b>
+     *
+     * @param model the model of the game
+     * @param delta the dots that changed
+     */
+    public void boardChanged(GameModel model, BoardDelta delta) {
+        if (delta.isFullRefresh()) {
+            this.rebuild();
+            return;
+        }
+        for (int k = 0; k < delta.size(); k++) {
+            int index = delta.getIndex(k);
+            if ((delta.getState(k) & Board.UNCOVERED) != 0) {
+                this.queue(index);
+            }
+            this.queueAround(index);
+        }
+    }
+
+    /**
+     * Applies the rules to the numbers listed until nothing more can be
+     * found
+     *
+     * @return The number of dots found to be safe or mines
+     */
+    public int solve() {
+        int found = this.safeFound.size() + this.minesFound.size();
+        while (!this.dirty.isEmpty()) {
+            int index = this.dirty.popInt();
+            this.queued.clear(index);
+            this.check(index);
+        }
+        return this.safeFound.size() + this.minesFound.size() - found;
+    }
+
+    /**
+     * Gets the covered dots found to be safe and not taken yet. Empty
+     * it once they are used
+     *
+     * @return The indexes of the safe dots
+     */
+    public IntStack getSafe() {
+        return this.safeFound;
+    }
+
+    /**
+     * Gets the covered dots found to be mines and not taken yet. Empty
+     * it once they are used
+     *
+     * @return The indexes of the mines
+     */
+    public IntStack getMines() {
+        return this.minesFound;
+    }
+
+    /**
+     * Checks if a dot was found to be safe
+     *
+     * @param index The index of the dot
+     * @return True if the dot is sure to be safe
+     */
+    public boolean isKnownSafe(int index) {
+        return this.knownSafe.get(index);
+    }
+
+    /**
+     * Checks if a dot was found to be a mine
+     *
+     * @param index The index of the dot
+     * @return True if the dot is sure to be a mine
+     */
+    public boolean isKnownMine(int index) {
+        return this.knownMines.get(index);
+    }
+
+    /**
+     * Gets the number of uncovered numbers that still have unknown
+     * neighbours
+     *
+     * @return The size of the frontier
+     */
+    public int getFrontierSize() {
+        return this.frontierSize;
+    }
+
+    /**
+     * Applies the rules to one uncovered number, alone and with each
+     * number of the frontier close enough to share neighbours with it.
+     * It stops at the first thing found. The rule of two numbers can
+     * find dots that are not neighbours of this number, and it may still
+     * have unknown neighbours, so it is listed again to go on with the
+     * other numbers
+     *
+     * @param index The index of the number
+     */
+    private void check(int index) {
+        int x = index % this.width;
+        int y = index / this.width;
+        if (this.model.isCovered(x, y)) {
+            this.setFrontier(index, false);
+            return;
+        }
+
+        int countA = this.unknowns(index, this.unknownA);
+        int minesA = this.remaining;
+        this.setFrontier(index, countA > 0);
+        if (countA == 0) {
+            return;
+        }
+
+        // One number at a time
+        if (minesA == 0 || minesA == countA) {
+            this.deduce(this.unknownA, countA, minesA > 0);
+            return;
+        }
+
+        // Two numbers at a time, they share neighbours only if they are
+        // at most 2 dots apart
+        for (int j = Math.max(y - 2, 0); j <= Math.min(y + 2, this.height - 1); j++) {
+            for (int i = Math.max(x - 2, 0); i <= Math.min(x + 2, this.width - 1); i++) {
+                int other = j * this.width + i;
+                if (other == index || !this.frontier.get(other)) {
+                    continue;
+                }
+                int countB = this.unknowns(other, this.unknownB);
+                int minesB = this.remaining;
+                if (countB == 0) {
+                    continue;
+                }
+
+                if (this.subset(this.unknownA, countA, this.unknownB, countB, minesB - minesA)
+                        || this.subset(this.unknownB, countB, this.unknownA, countA, minesA - minesB)) {
+                    this.queue(index);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The rule of two numbers: if the first list is all in the second
+     * one, the dots of the second list that are not in the first hold
+     * the difference of the mines left
+     *
+     * @param small The unknown dots of the first number, in order
+     * @param smallCount The number of dots in the first list
+     * @param big The unknown dots of the second number, in order
+     * @param bigCount The number of dots in the second list
+     * @param mines The mines left around the second number minus the
+     *            ones left around the first
+     * @return True if dots were found
+     */
+    private boolean subset(int[] small, int smallCount, int[] big, int bigCount, int mines) {
+        if (smallCount >= bigCount) {
+            return false;
+        }
+
+        // Both lists are in order, walk them together
+        int count = 0;
+        int s = 0;
+        for (int b = 0; b < bigCount; b++) {
+            if (s < smallCount && small[s] == big[b]) {
+                s++;
+            } else {
+                this.difference[count++] = big[b];
+            }
+        }
+        if (s < smallCount) {
+            return false;
+        }
+
+        if (mines == 0 || mines == count) {
+            this.deduce(this.difference, count, mines > 0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lists the covered neighbours of a number that are not flagged
+     * and not known yet, and sets <b>remaining</b> to the mines left
+     * among them
+     *
+     * @param index The index of the number
+     * @param out Where to put the indexes of the unknown neighbours,
+     *            in order
+     * @return The number of unknown neighbours
+     */
+    private int unknowns(int index, int[] out) {
+        int mines = this.model.getNeighbooringMines(index % this.width, index / this.width);
+        int count = 0;
+        int n = this.model.getNeighbours(index, this.neighbours);
+        for (int k = 0; k < n; k++) {
+            int next = this.neighbours[k];
+            int x = next % this.width;
+            int y = next / this.width;
+            if (!this.model.isCovered(x, y)) {
+                continue;
+            }
+            if (this.model.isFlagged(x, y) || this.knownMines.get(next)) {
+                mines--;
+            } else if (!this.knownSafe.get(next)) {
+                out[count++] = next;
+            }
+        }
+        this.remaining = mines;
+        return count;
+    }
+
+    /**
+     * Marks dots as safe or as mines, and lists the numbers around them
+     * to be looked at again
+     *
+     * @param dots The indexes of the dots
+     * @param count The number of dots
+     * @param mine True if they are mines, false if they are safe
+     */
+    private void deduce(int[] dots, int count, boolean mine) {
+        for (int k = 0; k < count; k++) {
+            int index = dots[k];
+            if (mine) {
+                this.knownMines.set(index);
+                this.minesFound.pushInt(index);
+            } else {
+                this.knownSafe.set(index);
+                this.safeFound.pushInt(index);
+            }
+            this.queueAround(index);
+        }
+    }
+
+    /**
+     * Lists the uncovered neighbours of a dot to be looked at again
+     *
+     * @param index The index of the dot
+     */
+    private void queueAround(int index) {
+        int n = this.model.getNeighbours(index, this.neighbours);
+        for (int k = 0; k < n; k++) {
+            int next = this.neighbours[k];
+            if (!this.model.isCovered(next % this.width, next / this.width)) {
+                this.queue(next);
+            }
+        }
+    }
+
+    /**
+     * Lists a dot to be looked at again, if it is not listed yet
+     *
+     * @param index The index of the dot
+     */
+    private void queue(int index) {
+        if (!this.queued.get(index)) {
+            this.queued.set(index);
+            this.dirty.pushInt(index);
+        }
+    }
+
+    /**
+     * Adds or removes a number from the frontier
+     *
+     * @param index The index of the number
+     * @param in True if it still has unknown neighbours
+     */
+    private void setFrontier(int index, boolean in) {
+        if (this.frontier.get(index) != in) {
+            this.frontier.set(index, in);
+            this.frontierSize += in ? 1 : -1;
+        }
+    }
+}
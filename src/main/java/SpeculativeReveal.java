@@ -0,0 +1,218 @@
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The class <b>SpeculativeReveal</b> works out ahead of time which dots
+ * a click on a blank dot would uncover, while the player is still
+ * pointing at it. A background thread finds the blank region and its
+ * border without changing the board, and lists them as a
+ * <b>BoardDelta</b> with the state each dot will have once uncovered.
+ * When the click comes the controller only has to <b>commit</b> it:
+ * the dots are written to the board and added to the delta of the move
+ * as they are, without looking at the board again.
+ *
+ * The delta is made for one version of the board (see
+ * <b>GameModel.getVersion</b>). If any dot changed since, it is thrown
+ * away and the click is revealed the normal way.
+ *
+ * Boards with a <b>ZoneIndex</b> are not worked out ahead, their
+ * regions are already listed and uncovered in one go. So it only works
+ * on boards of more than ZoneIndex.MAX_SIZE dots, or boards whose index
+ * was dropped. Regions of more than MAX_DOTS dots are not kept either,
+ * the list would take too much memory.
+ *
+ * The two deltas and the search buffers are kept and reused, a search
+ * does not allocate once they are big enough.
+ *
+ * <b>speculate</b> and <b>commit</b> must be called on the thread that
+ * changes the board, the game logic thread. The search reads the board
+ * from the background thread while it may be changing, but then the
+ * version does not match anymore and the delta is never used.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class SpeculativeReveal {
+
+    /**
+     * Regions with more dots than this are not worked out ahead
+     */
+    public static final int MAX_DOTS = 1 << 22;
+
+    private GameModel model;
+    private ExecutorService worker;
+
+    // The last search asked for, a newer one makes the older stop
+    private volatile int request;
+    private int wantedIndex = -1;
+    private long wantedVersion;
+
+    // The finished delta, guarded by this
+    private BoardDelta ready = new BoardDelta();
+    private int readyIndex = -1;
+    private long readyVersion;
+
+    // Only used by the background thread, the delta being made is
+    // swapped with the ready one when it is done
+    private BoardDelta building = new BoardDelta();
+    private IntStack blanks = new IntStack();
+    private IntStack seen = new IntStack();
+    private BitSet visited = new BitSet();
+    private int[] neighbours = new int[8];
+
+    /**
+     * Constructor, starts the background thread
+     *
+     * @param model The model of the game
+     */
+    public SpeculativeReveal(GameModel model) {
+        this.model = model;
+        this.worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "speculative-reveal");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts working out the dots a click on a dot would uncover, if
+     * it is a covered blank dot. Nothing is done if the board has a
+     * <b>ZoneIndex</b> or if the same dot is already being worked out
+     * for the current board. Called on the game logic thread
+     *
+     * @param x The column of the dot
+     * @param y The row of the dot
+     */
+    public void speculate(int x, int y) {
+        if (this.model.getZoneIndex() != null || this.model.getLose() || !this.model.isCovered(x, y) || this.model.isFlagged(x, y)
+                || this.model.isMined(x, y) || this.model.getNeighbooringMines(x, y) != 0) {
+            return;
+        }
+
+        final int index = this.model.getIndex(x, y);
+        final long version = this.model.getVersion();
+        if (index == this.wantedIndex && version == this.wantedVersion) {
+            return;
+        }
+        this.wantedIndex = index;
+        this.wantedVersion = version;
+
+        final int id = ++this.request;
+        this.worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                search(index, version, id);
+            }
+        });
+    }
+
+    /**
+     * Uncovers the dots worked out for a click on a dot, the clicked
+     * dot included. It is only done if the delta was made for that dot
+     * and the board did not change since. Either way the delta is
+     * thrown away so it is used once. Called on the game logic thread,
+     * before the click changes the board
+     *
+     * @param x The column of the clicked dot
+     * @param y The row of the clicked dot
+     * @return True if the dots were uncovered, false if the click has
+     *         to be revealed the normal way
+     */
+    public synchronized boolean commit(int x, int y) {
+        boolean usable = this.readyIndex == this.model.getIndex(x, y)
+                && this.readyVersion == this.model.getVersion();
+        if (usable) {
+            this.model.applyRevealed(this.ready);
+        }
+        this.ready.clear();
+        this.readyIndex = -1;
+        this.wantedIndex = -1;
+
+        // A search still going on is too late now
+        this.request++;
+        return usable;
+    }
+
+    /**
+     * Finds the blank region of a dot and its border, the same dots the
+     * reveal engines uncover, and keeps them as the ready delta if it
+     * was not replaced by a newer search. Flagged dots are not listed
+     * but blank ones still carry the region. Runs on the background
+     * thread
+     *
+     * @param start The index of the blank dot
+     * @param version The version of the board when it was asked for
+     * @param id The number of the search
+     */
+    private void search(int start, long version, int id) {
+        BoardDelta list = this.building;
+        list.clear();
+        this.blanks.clear();
+        this.seen.clear();
+        this.visited.set(start);
+        this.seen.pushInt(start);
+        this.blanks.pushInt(start);
+        list.add(start, this.model.getCell(start) | Board.UNCOVERED);
+
+        int steps = 0;
+        while (!this.blanks.isEmpty()) {
+            // Stop early if the player already points somewhere else,
+            // or if the region is too big to be kept
+            if ((++steps & 1023) == 0 && (id != this.request || list.size() > MAX_DOTS)) {
+                break;
+            }
+
+            int count = this.model.getNeighbours(this.blanks.popInt(), this.neighbours);
+            for (int k = 0; k < count; k++) {
+                int next = this.neighbours[k];
+                if (this.visited.get(next)) {
+                    continue;
+                }
+                int cell = this.model.getCell(next);
+                boolean blank = (cell & (Board.NEIGHBOURS_MASK | Board.MINED)) == 0;
+
+                if ((cell & Board.FLAGGED) != 0) {
+                    if (blank) {
+                        this.visited.set(next);
+                        this.seen.pushInt(next);
+                        this.blanks.pushInt(next);
+                    }
+                } else if ((cell & Board.UNCOVERED) == 0) {
+                    this.visited.set(next);
+                    this.seen.pushInt(next);
+                    list.add(next, cell | Board.UNCOVERED);
+                    if (blank) {
+                        this.blanks.pushInt(next);
+                    }
+                }
+            }
+        }
+
+        // Only clear the bits that were set, the board can be huge
+        while (!this.seen.isEmpty()) {
+            this.visited.clear(this.seen.popInt());
+        }
+
+        if (!this.blanks.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (id == this.request) {
+                this.building = this.ready;
+                this.ready = list;
+                this.readyIndex = start;
+                this.readyVersion = version;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.SplittableRandom;
+
+/**
+ * The class <b>SplittableRandomSource</b> is the default
+ * <b>RandomSource</b>, it uses the <b>SplittableRandom</b>
+ * of the JDK.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class SplittableRandomSource implements RandomSource {
+
+    private SplittableRandom random;
+
+    /**
+     * Constructor for a source starting from a seed
+     *
+     * @param seed The seed
+     */
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructor wrapping a SplittableRandom
+     *
+     * @param random The random number generator to use
+     */
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Gets a random number between 0 and bound
+     *
+     * @param bound The upper bound (exclusive)
+     * @return The random number
+     */
+    public int nextInt(int bound) {
+        return this.random.nextInt(bound);
+    }
+
+    /**
+     * Gets a random long
+     *
+     * @return The random number
+     */
+    public long nextLong() {
+        return this.random.nextLong();
+    }
+
+    /**
+     * Splits off an independent source
+     *
+     * @return The new source
+     */
+    public RandomSource split() {
+        return new SplittableRandomSource(this.random.split());
+    }
+
+    /**
+     * Makes a new source from a seed
+     *
+     * @param seed The seed
+     * @return The new source
+     */
+    public RandomSource withSeed(long seed) {
+        return new SplittableRandomSource(seed);
+    }
+}
@@ -0,0 +1,227 @@
+import java.util.Arrays;
+
+/**
+ * The class <b>SummaryPyramid</b> keeps counts of the dots of a board
+ * by square blocks, so a zoomed out view can show a whole block with a
+ * single colour without reading every dot of it.
+ *
+ * Level 0 counts blocks of 8x8 dots and each level above it counts
+ * blocks twice as big, up to a level with a single block. For every
+ * block it keeps the number of uncovered dots, flagged dots and mines.
+ * The counts are built once from the board, then each changed dot only
+ * updates the one block holding it on every level.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class SummaryPyramid {
+
+    /**
+     * The blocks of level 0 are 1 << BASE_SHIFT dots wide
+     */
+    public static final int BASE_SHIFT = 3;
+
+    private int width, height, levels;
+    private int[] levelWidths, levelHeights;
+    private int[][] revealed, flagged, mines;
+
+    /**
+     * Constructor for the summary of a board of a given size, the
+     * counts are all 0 until <b>build</b> is called
+     *
+     * @param width The width of the board
+     * @param height The height of the board
+     */
+    public SummaryPyramid(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        // Count the levels until one block covers the whole board
+        this.levels = 1;
+        while ((width - 1) >> (BASE_SHIFT + this.levels - 1) > 0
+                || (height - 1) >> (BASE_SHIFT + this.levels - 1) > 0) {
+            this.levels++;
+        }
+
+        this.levelWidths = new int[this.levels];
+        this.levelHeights = new int[this.levels];
+        this.revealed = new int[this.levels][];
+        this.flagged = new int[this.levels][];
+        this.mines = new int[this.levels][];
+        for (int level = 0; level < this.levels; level++) {
+            int shift = BASE_SHIFT + level;
+            this.levelWidths[level] = ((width - 1) >> shift) + 1;
+            this.levelHeights[level] = ((height - 1) >> shift) + 1;
+            int blocks = this.levelWidths[level] * this.levelHeights[level];
+            this.revealed[level] = new int[blocks];
+            this.flagged[level] = new int[blocks];
+            this.mines[level] = new int[blocks];
+        }
+    }
+
+    /**
+     * Counts all the dots of a board again
+     *
+     * @param board The board to count
+     */
+    public void build(Board board) {
+        int[] rev = this.revealed[0];
+        int[] flag = this.flagged[0];
+        int[] mine = this.mines[0];
+        Arrays.fill(rev, 0);
+        Arrays.fill(flag, 0);
+        Arrays.fill(mine, 0);
+
+        int blocksWide = this.levelWidths[0];
+        for (int y = 0; y < this.height; y++) {
+            int row = y * this.width;
+            int blockRow = (y >> BASE_SHIFT) * blocksWide;
+            for (int x = 0; x < this.width; x++) {
+                int cell = board.get(row + x);
+                int block = blockRow + (x >> BASE_SHIFT);
+                rev[block] += (cell >> 5) & 1;
+                mine[block] += (cell >> 4) & 1;
+                flag[block] += (cell >> 7) & 1;
+            }
+        }
+
+        // Each block of a level is the sum of 4 blocks of the level below
+        for (int level = 1; level < this.levels; level++) {
+            this.sumLevel(this.revealed, level);
+            this.sumLevel(this.flagged, level);
+            this.sumLevel(this.mines, level);
+        }
+    }
+
+    /**
+     * Computes one level of counts from the level below it
+     *
+     * @param counts The counts of every level
+     * @param level The level to compute
+     */
+    private void sumLevel(int[][] counts, int level) {
+        int[] below = counts[level - 1];
+        int[] above = counts[level];
+        int belowWidth = this.levelWidths[level - 1];
+        int belowHeight = this.levelHeights[level - 1];
+        int aboveWidth = this.levelWidths[level];
+        Arrays.fill(above, 0);
+        for (int y = 0; y < belowHeight; y++) {
+            for (int x = 0; x < belowWidth; x++) {
+                above[(y >> 1) * aboveWidth + (x >> 1)] += below[y * belowWidth + x];
+            }
+        }
+    }
+
+    /**
+     * Updates the counts for a dot that changed state
+     *
+     * @param index The index of the dot
+     * @param oldCell The state it had before
+     * @param newCell The state it has now
+     */
+    public void change(int index, int oldCell, int newCell) {
+        int diff = oldCell ^ newCell;
+        if ((diff & (Board.UNCOVERED | Board.FLAGGED | Board.MINED)) == 0) {
+            return;
+        }
+        int rev = ((newCell >> 5) & 1) - ((oldCell >> 5) & 1);
+        int mine = ((newCell >> 4) & 1) - ((oldCell >> 4) & 1);
+        int flag = ((newCell >> 7) & 1) - ((oldCell >> 7) & 1);
+
+        int x = index % this.width;
+        int y = index / this.width;
+        for (int level = 0; level < this.levels; level++) {
+            int shift = BASE_SHIFT + level;
+            int block = (y >> shift) * this.levelWidths[level] + (x >> shift);
+            this.revealed[level][block] += rev;
+            this.mines[level][block] += mine;
+            this.flagged[level][block] += flag;
+        }
+    }
+
+    /**
+     * Gets the number of levels
+     *
+     * @return The number of levels
+     */
+    public int getLevels() {
+        return this.levels;
+    }
+
+    /**
+     * Gets the number of blocks across a level
+     *
+     * @param level The level
+     * @return The number of blocks in a row of the level
+     */
+    public int getLevelWidth(int level) {
+        return this.levelWidths[level];
+    }
+
+    /**
+     * Gets the number of blocks down a level
+     *
+     * @param level The level
+     * @return The number of blocks in a column of the level
+     */
+    public int getLevelHeigth(int level) {
+        return this.levelHeights[level];
+    }
+
+    /**
+     * Gets the number of dots of the board inside a block, the blocks
+     * on the right and bottom edges can be cut by the board
+     *
+     * @param level The level of the block
+     * @param bx The column of the block
+     * @param by The row of the block
+     * @return The number of dots in the block
+     */
+    public int getDots(int level, int bx, int by) {
+        int shift = BASE_SHIFT + level;
+        int w = Math.min(this.width - (bx << shift), 1 << shift);
+        int h = Math.min(this.height - (by << shift), 1 << shift);
+        return w * h;
+    }
+
+    /**
+     * Gets the number of uncovered dots of a block
+     *
+     * @param level The level of the block
+     * @param bx The column of the block
+     * @param by The row of the block
+     * @return The number of uncovered dots
+     */
+    public int getRevealed(int level, int bx, int by) {
+        return this.revealed[level][by * this.levelWidths[level] + bx];
+    }
+
+    /**
+     * Gets the number of flagged dots of a block
+     *
+     * @param level The level of the block
+     * @param bx The column of the block
+     * @param by The row of the block
+     * @return The number of flags
+     */
+    public int getFlagged(int level, int bx, int by) {
+        return this.flagged[level][by * this.levelWidths[level] + bx];
+    }
+
+    /**
+     * Gets the number of mines of a block
+     *
+     * @param level The level of the block
+     * @param bx The column of the block
+     * @param by The row of the block
+     * @return The number of mines
+     */
+    public int getMines(int level, int bx, int by) {
+        return this.mines[level][by * this.levelWidths[level] + bx];
+    }
+}
@@ -0,0 +1,217 @@
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class <b>TileCache</b> keeps images of square tiles of the board
+ * that were already painted, so repainting or scrolling over a part of
+ * the board that did not change only has to draw the image again.
+ *
+ * The tiles are found by a key made from their zoom level and position.
+ * When the images take more memory than the budget, the tiles that
+ * were not used for the longest time are thrown away first.
+ *
+ * A tile can be marked stale instead of thrown away when the dots it
+ * shows changed. Its image is then still there to be drawn until it
+ * can be painted again, and <b>put</b> makes it fresh.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class TileCache {
+
+    /**
+     * Default memory budget of the images, in bytes
+     */
+    public static final long DEFAULT_BUDGET = 64L << 20;
+
+    private LinkedHashMap<Long, BufferedImage> tiles;
+    private HashSet<Long> stale = new HashSet<Long>();
+    private long budget, used;
+
+    /**
+     * Constructor for an empty cache
+     *
+     * @param budget The most memory the images can take, in bytes
+     */
+    public TileCache(long budget) {
+        this.budget = budget;
+
+        // Access order, the first tile is the one not used for the longest time
+        this.tiles = new LinkedHashMap<Long, BufferedImage>(64, 0.75f, true);
+    }
+
+    /**
+     * Makes the key of a tile
+     *
+     * @param zoom The zoom level of the tile
+     * @param tileX The column of the tile
+     * @param tileY The row of the tile
+     * @return The key of the tile
+     */
+    public static long key(int zoom, int tileX, int tileY) {
+        return ((long) zoom << 56) | ((long) tileY << 28) | tileX;
+    }
+
+    /**
+     * Gets the image of a tile and marks it as just used
+     *
+     * @param key The key of the tile
+     * @return The image, or null if it is not in the cache
+     */
+    public BufferedImage get(long key) {
+        return this.tiles.get(key);
+    }
+
+    /**
+     * Adds the image of a tile, then throws away the oldest tiles until
+     * the images fit in the budget again. The tile just added is kept
+     * even if it is bigger than the budget by itself
+     *
+     * @param key The key of the tile
+     * @param image The image of the tile
+     */
+    public void put(long key, BufferedImage image) {
+        BufferedImage old = this.tiles.put(key, image);
+        this.stale.remove(key);
+        if (old != null) {
+            this.used -= getBytes(old);
+        }
+        this.used += getBytes(image);
+        this.evict();
+    }
+
+    /**
+     * Takes an image that is about to be thrown away, so it can be
+     * painted again for another tile instead of making a new one
+     *
+     * @param width The width of the wanted image
+     * @param height The height of the wanted image
+     * @return An image of that size taken out of the cache, or null if
+     *         the cache is not full or the oldest image is not that size
+     */
+    public BufferedImage reuse(int width, int height) {
+        if (this.used + (long) width * height * 4 <= this.budget || this.tiles.isEmpty()) {
+            return null;
+        }
+        Iterator<Map.Entry<Long, BufferedImage>> oldest = this.tiles.entrySet().iterator();
+        Map.Entry<Long, BufferedImage> entry = oldest.next();
+        BufferedImage image = entry.getValue();
+        if (image.getWidth() != width || image.getHeight() != height) {
+            return null;
+        }
+        this.stale.remove(entry.getKey());
+        oldest.remove();
+        this.used -= getBytes(image);
+        return image;
+    }
+
+    /**
+     * Throws away a tile
+     *
+     * @param key The key of the tile
+     */
+    public void remove(long key) {
+        BufferedImage old = this.tiles.remove(key);
+        this.stale.remove(key);
+        if (old != null) {
+            this.used -= getBytes(old);
+        }
+    }
+
+    /**
+     * Throws away all the tiles
+     */
+    public void clear() {
+        this.tiles.clear();
+        this.stale.clear();
+        this.used = 0;
+    }
+
+    /**
+     * Marks a tile as showing dots that changed, its image is kept
+     *
+     * @param key The key of the tile
+     */
+    public void markStale(long key) {
+        if (this.tiles.containsKey(key)) {
+            this.stale.add(key);
+        }
+    }
+
+    /**
+     * Marks all the tiles as showing dots that changed, for when the
+     * whole board changed
+     */
+    public void markAllStale() {
+        this.stale.addAll(this.tiles.keySet());
+    }
+
+    /**
+     * Checks if a tile has to be painted again
+     *
+     * @param key The key of the tile
+     * @return True if the dots of the tile changed since it was painted
+     */
+    public boolean isStale(long key) {
+        return this.stale.contains(key);
+    }
+
+    /**
+     * Changes the memory budget, throwing away tiles if needed
+     *
+     * @param budget The most memory the images can take, in bytes
+     */
+    public void setBudget(long budget) {
+        this.budget = budget;
+        this.evict();
+    }
+
+    /**
+     * Gets the memory taken by the images
+     *
+     * @return The number of bytes
+     */
+    public long getUsed() {
+        return this.used;
+    }
+
+    /**
+     * Gets the number of tiles in the cache
+     *
+     * @return The number of tiles
+     */
+    public int size() {
+        return this.tiles.size();
+    }
+
+    /**
+     * Throws away the oldest tiles until the images fit in the budget,
+     * always keeping the newest one
+     */
+    private void evict() {
+        Iterator<Map.Entry<Long, BufferedImage>> oldest = this.tiles.entrySet().iterator();
+        while (this.used > this.budget && this.tiles.size() > 1) {
+            Map.Entry<Long, BufferedImage> entry = oldest.next();
+            this.used -= getBytes(entry.getValue());
+            this.stale.remove(entry.getKey());
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Gets the memory taken by an image, 4 bytes a pixel
+     *
+     * @param image The image
+     * @return The number of bytes
+     */
+    private static long getBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+}
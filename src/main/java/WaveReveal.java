@@ -0,0 +1,112 @@
+/**
+ * The class <b>WaveReveal</b> is a <b>RevealEngine</b> that fills the
+ * blank region one layer at a time, going out from the selected dot
+ * like a wave (a breadth first search). Every time a frame of the
+ * screen has passed since the last wave, it calls back so the dots
+ * uncovered so far can be shown. The player sees the region open from
+ * the first milliseconds instead of waiting for the whole fill.
+ *
+ * The fill is not slowed down to be shown, and it ends with exactly the
+ * same dots uncovered as the other engines.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class WaveReveal implements RevealEngine {
+
+    private Runnable onWave;
+    private volatile long frameNanos;
+    private IntStack layer = new IntStack();
+    private IntStack nextLayer = new IntStack();
+    private IntStack seenFlags = new IntStack();
+    private int[] neighbours = new int[8];
+
+    /**
+     * Constructor
+     *
+     * @param onWave Called on the thread of the fill each time the
+     *            dots uncovered so far should be shown
+     * @param frameMillis The time between two waves, in milliseconds
+     */
+    public WaveReveal(Runnable onWave, int frameMillis) {
+        this.onWave = onWave;
+        this.frameNanos = frameMillis * 1000000L;
+    }
+
+    /**
+     * Changes the time between two waves, it can be called from any
+     * thread and is used by the next fill
+     *
+     * @param frameMillis The time between two waves, in milliseconds
+     */
+    public void setFrameMillis(int frameMillis) {
+        this.frameNanos = frameMillis * 1000000L;
+    }
+
+    /**
+     * Uncovers the blank region of a dot and its border, one layer at
+     * a time
+     *
+     * @param model The model of the game
+     * @param x The column of the selected dot
+     * @param y The row of the selected dot
+     */
+    public void reveal(GameModel model, int x, int y) {
+        this.layer.clear();
+        this.nextLayer.clear();
+        this.seenFlags.clear();
+        this.layer.pushInt(model.getIndex(x, y));
+
+        // The first wave goes out as soon as the first layer is done
+        long frame = this.frameNanos;
+        long lastWave = System.nanoTime() - frame;
+        while (!this.layer.isEmpty()) {
+            while (!this.layer.isEmpty()) {
+                this.spread(model, this.layer.popInt());
+            }
+
+            long now = System.nanoTime();
+            if (now - lastWave >= frame && !this.nextLayer.isEmpty()) {
+                this.onWave.run();
+                lastWave = now;
+            }
+
+            IntStack swap = this.layer;
+            this.layer = this.nextLayer;
+            this.nextLayer = swap;
+        }
+    }
+
+    /**
+     * Uncovers the neighbours of a blank dot of the region and adds
+     * the blank ones not visited yet to the next layer. Flagged dots
+     * stay covered but blank ones still carry the wave
+     *
+     * @param model The model of the game
+     * @param index The index of the blank dot
+     */
+    private void spread(GameModel model, int index) {
+        int count = model.getNeighbours(index, this.neighbours);
+        for (int k = 0; k < count; k++) {
+            int next = this.neighbours[k];
+            int cell = model.getCell(next);
+            boolean blank = (cell & (Board.NEIGHBOURS_MASK | Board.MINED)) == 0;
+
+            if ((cell & Board.FLAGGED) != 0) {
+                if (blank && !this.seenFlags.contains(next)) {
+                    this.seenFlags.pushInt(next);
+                    this.nextLayer.pushInt(next);
+                }
+            } else if ((cell & Board.UNCOVERED) == 0) {
+                model.uncover(next);
+                if (blank) {
+                    this.nextLayer.pushInt(next);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * The class <b>XoshiroRandom</b> is a <b>RandomSource</b> using the
+ * xoshiro256** generator by Blackman and Vigna. It is a few shifts,
+ * rotations and additions per number, which makes it faster than the
+ * generators of the JDK. The state is seeded with splitmix64 so any
+ * seed, even 0, gives a good state.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class XoshiroRandom implements RandomSource {
+
+    private long s0, s1, s2, s3;
+
+    /**
+     * Constructor for a generator starting from a seed
+     *
+     * @param seed The seed
+     */
+    public XoshiroRandom(long seed) {
+        long x = seed;
+        x += 0x9E3779B97F4A7C15L;
+        this.s0 = mix(x);
+        x += 0x9E3779B97F4A7C15L;
+        this.s1 = mix(x);
+        x += 0x9E3779B97F4A7C15L;
+        this.s2 = mix(x);
+        x += 0x9E3779B97F4A7C15L;
+        this.s3 = mix(x);
+    }
+
+    /**
+     * The splitmix64 output function, used to spread a seed over the state
+     *
+     * @param z The value to mix
+     * @return The mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets a random long and advances the state
+     *
+     * @return The random number
+     */
+    public long nextLong() {
+        long result = Long.rotateLeft(this.s1 * 5, 7) * 9;
+        long t = this.s1 << 17;
+
+        this.s2 ^= this.s0;
+        this.s3 ^= this.s1;
+        this.s1 ^= this.s2;
+        this.s0 ^= this.s3;
+        this.s2 ^= t;
+        this.s3 = Long.rotateLeft(this.s3, 45);
+
+        return result;
+    }
+
+    /**
+     * Gets a random number between 0 and bound without bias, using
+     * a multiplication instead of a division (Lemire's method)
+     *
+     * @param bound The upper bound (exclusive)
+     * @return The random number
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long m = (this.nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (this.nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /**
+     * Splits off an independent generator
+     *
+     * @return The new generator
+     */
+    public RandomSource split() {
+        return new XoshiroRandom(this.nextLong());
+    }
+
+    /**
+     * Makes a new generator from a seed
+     *
+     * @param seed The seed
+     * @return The new generator
+     */
+    public RandomSource withSeed(long seed) {
+        return new XoshiroRandom(seed);
+    }
+}
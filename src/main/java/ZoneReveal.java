@@ -0,0 +1,69 @@
+/**
+ * The class <b>ZoneReveal</b> is a <b>RevealEngine</b> that uses the
+ * <b>ZoneIndex</b> of the model. The runs of blank dots of the region
+ * of the selected dot were listed when the board was generated, so they
+ * are uncovered in one batch without any search. The border of the
+ * region is the dots around the runs: the row of each run goes one dot
+ * further on both sides, and the rows above and below it too. Boards
+ * without an index are left to another engine.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ZoneReveal implements RevealEngine {
+
+    private RevealEngine fallback;
+
+    /**
+     * Constructor
+     *
+     * @param fallback The engine used when the board has no index
+     */
+    public ZoneReveal(RevealEngine fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Uncovers the blank region of a dot and its border
+     *
+     * @param model The model of the game
+     * @param x The column of the selected dot
+     * @param y The row of the selected dot
+     */
+    public void reveal(GameModel model, int x, int y) {
+        ZoneIndex zones = model.getZoneIndex();
+        if (zones == null) {
+            this.fallback.reveal(model, x, y);
+            return;
+        }
+
+        int width = model.getWidth();
+        int height = model.getHeigth();
+        int region = zones.getRegion(model.getIndex(x, y));
+        int end = zones.getRegionEnd(region);
+        for (int k = zones.getRegionStart(region); k < end; k++) {
+            int run = zones.getRegionRun(k);
+            int start = zones.getRunStart(run);
+            int row = start / width;
+            int first = Math.max(start % width - 1, 0);
+            int last = Math.min(start % width + zones.getRunLength(run), width - 1);
+
+            // The box around the run, dots already uncovered by the box
+            // of another run are skipped by uncover
+            for (int j = Math.max(row - 1, 0); j <= Math.min(row + 1, height - 1); j++) {
+                for (int i = first; i <= last; i++) {
+                    int index = j * width + i;
+
+                    // Flagged dots are left covered
+                    if ((model.getCell(index) & Board.FLAGGED) == 0) {
+                        model.uncover(index);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests of <b>BoardGenerator</b>: every board must have exactly the
+ * number of mines asked for and the right neighbooring mines, whether
+ * it is generated in one go or in bands, and the same seed must give
+ * the same board.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class BoardGeneratorTest {
+
+    @Test
+    public void placesExactlyTheMinesAskedFor() {
+        int[][] games = { {10, 5, 1}, {20, 12, 36}, {30, 16, 99}, {40, 40, 1000}, {9, 9, 80}, {50, 20, 0} };
+        for (int[] game : games) {
+            for (long seed = 0; seed < 20; seed++) {
+                Board board = generate(game[0], game[1], game[2], seed, 0);
+                assertEquals("mines of " + game[0] + "x" + game[1] + " seed " + seed,
+                        game[2], countMines(board));
+                checkNeighbours(board, game[0], game[1]);
+            }
+        }
+    }
+
+    @Test
+    public void placesExactlyTheMinesAskedForInBands() {
+        int[][] games = { {200, 150, 4500}, {123, 77, 1}, {64, 64, 4000}, {300, 10, 2999} };
+        int[] bandRows = {1, 3, 7, 64, 1000};
+        for (int[] game : games) {
+            for (int rows : bandRows) {
+                for (long seed = 0; seed < 5; seed++) {
+                    Board board = generate(game[0], game[1], game[2], seed, rows);
+                    assertEquals("mines of " + game[0] + "x" + game[1] + " bands of " + rows,
+                            game[2], countMines(board));
+                    checkNeighbours(board, game[0], game[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameBoard() {
+        for (int rows = 0; rows <= 5; rows += 5) {
+            Board first = generate(100, 80, 1200, 42, rows);
+            Board second = generate(100, 80, 1200, 42, rows);
+            for (int i = 0; i < first.size(); i++) {
+                assertEquals("dot " + i, first.get(i), second.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsBandsWithoutRows() {
+        for (int rows : new int[] {0, -3}) {
+            try {
+                new BoardGenerator(20, 20).generateParallel(new ArrayBoard(400), 10,
+                        new SplittableRandomSource(1), rows);
+                fail("bands of " + rows + " rows were accepted");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Generates a board
+     *
+     * @param width The width of the board
+     * @param height The height of the board
+     * @param mines The number of mines
+     * @param seed The seed of the board
+     * @param bandRows The rows of a band, or 0 to let the generator choose
+     * @return The board
+     */
+    private static Board generate(int width, int height, int mines, long seed, int bandRows) {
+        Board board = new ArrayBoard(width * height);
+        BoardGenerator generator = new BoardGenerator(width, height);
+        RandomSource random = new SplittableRandomSource(seed);
+        if (bandRows == 0) {
+            generator.generate(board, mines, random);
+        } else {
+            generator.generateParallel(board, mines, random, bandRows);
+        }
+        return board;
+    }
+
+    /**
+     * Counts the mined dots of a board
+     *
+     * @param board The board
+     * @return The number of mines
+     */
+    private static int countMines(Board board) {
+        int mines = 0;
+        for (int i = 0; i < board.size(); i++) {
+            if ((board.get(i) & Board.MINED) != 0) {
+                mines++;
+            }
+        }
+        return mines;
+    }
+
+    /**
+     * Checks the neighbooring mines of every dot by counting them again
+     *
+     * @param board The board
+     * @param width The width of the board
+     * @param height The height of the board
+     */
+    private static void checkNeighbours(Board board, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int count = 0;
+                for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+                    for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+                        if ((i != x || j != y) && (board.get(j * width + i) & Board.MINED) != 0) {
+                            count++;
+                        }
+                    }
+                }
+                assertEquals("neighbours of " + x + "," + y, count,
+                        board.get(y * width + x) & Board.NEIGHBOURS_MASK);
+            }
+        }
+    }
+}
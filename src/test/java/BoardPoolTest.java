@@ -0,0 +1,34 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of <b>BoardPool</b>: a model using the pool must play the same
+ * boards as a model generating them itself.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class BoardPoolTest {
+
+    @Test
+    public void pooledBoardsAreTheGeneratedOnes() {
+        GameModel pooled = new GameModel(60, 40, 300, 7L);
+        GameModel plain = new GameModel(60, 40, 300, 7L);
+        pooled.setPoolDepth(BoardPool.DEFAULT_DEPTH);
+        for (int game = 0; game < 10; game++) {
+            pooled.reset();
+            plain.reset();
+            assertEquals(plain.getSeed(), pooled.getSeed());
+            for (int index = 0; index < 60 * 40; index++) {
+                assertEquals("dot " + index + " of game " + game, plain.getCell(index), pooled.getCell(index));
+            }
+            assertEquals(plain.getZoneIndex().getNumberOfRegions(), pooled.getZoneIndex().getNumberOfRegions());
+        }
+        pooled.setPoolDepth(0);
+    }
+}
@@ -0,0 +1,49 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the reads of <b>GameModel</b> from another thread than the
+ * one changing it: a read is only valid if no move started or ran
+ * since its stamp was taken.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class GameModelReadTest {
+
+    @Test
+    public void readIsValidWithoutMoves() {
+        GameModel model = new GameModel(20, 12, 36, 1L);
+        long stamp = model.startRead();
+        model.getCell(5);
+        assertTrue(model.validateRead(stamp));
+    }
+
+    @Test
+    public void readIsThrownAwayDuringAMove() {
+        GameModel model = new GameModel(20, 12, 36, 1L);
+        model.beginChange();
+        long stamp = model.startRead();
+        assertEquals(0, stamp);
+        assertFalse(model.validateRead(stamp));
+        model.endChange();
+        assertTrue(model.validateRead(model.startRead()));
+    }
+
+    @Test
+    public void readIsThrownAwayAfterAMove() {
+        GameModel model = new GameModel(20, 12, 36, 1L);
+        long stamp = model.startRead();
+        model.beginChange();
+        model.toggleMineFlag(3, 4);
+        model.endChange();
+        assertFalse(model.validateRead(stamp));
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of <b>ParallelReveal</b>: a click must uncover the same dots as
+ * <b>ScanlineReveal</b>, with flags on the board, for small regions done
+ * on one thread and for regions big enough to use the threads. No dot
+ * must keep the mark used to send it once.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ParallelRevealTest {
+
+    @Test
+    public void revealsTheSameDotsAsScanlineReveal() {
+        // Many mines, many small regions
+        play(512, 256, 20000, 1, 200, ParallelReveal.FRONTIER_THRESHOLD);
+        play(300, 300, 12000, 2, 200, ParallelReveal.FRONTIER_THRESHOLD);
+    }
+
+    @Test
+    public void revealsABigRegionTheSameWay() {
+        // Few mines, big regions
+        play(1024, 1024, 2000, 3, 20, ParallelReveal.FRONTIER_THRESHOLD);
+        play(1500, 700, 800, 4, 20, ParallelReveal.FRONTIER_THRESHOLD);
+    }
+
+    @Test
+    public void revealsTheSameDotsWithTheThreads() {
+        // Every level is done by the threads
+        play(512, 256, 20000, 5, 200, 1);
+        play(1024, 1024, 2000, 6, 20, 1);
+        play(700, 1500, 8000, 7, 50, 64);
+    }
+
+    /**
+     * Plays the same board with both engines, clicking covered blank
+     * dots with some flags on the board, and checks both boards are the
+     * same after each click
+     *
+     * @param width The width of the board
+     * @param height The height of the board
+     * @param mines The number of mines
+     * @param seed The seed of the board
+     * @param clicks The number of clicks
+     * @param frontierThreshold The smallest frontier done by the threads
+     */
+    private static void play(int width, int height, int mines, long seed, int clicks, int frontierThreshold) {
+        assertTrue(width * height >= ParallelReveal.BOARD_THRESHOLD);
+        GameModel parallel = new GameModel(width, height, mines, seed);
+        GameModel scanned = new GameModel(width, height, mines, seed);
+        RevealEngine engine = new ParallelReveal(new ScanlineReveal(), frontierThreshold);
+        RevealEngine scanline = new ScanlineReveal();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int k = 0; k < mines / 4; k++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            if (!parallel.isFlagged(x, y)) {
+                parallel.toggleMineFlag(x, y);
+                scanned.toggleMineFlag(x, y);
+            }
+        }
+
+        int size = width * height;
+        for (int k = 0; k < clicks; k++) {
+            int index = random.nextInt(size);
+            int x = index % width;
+            int y = index / width;
+            if (!parallel.isCovered(x, y) || parallel.isFlagged(x, y)
+                    || (parallel.getCell(index) & (Board.NEIGHBOURS_MASK | Board.MINED)) != 0) {
+                continue;
+            }
+
+            // The controller uncovers the clicked dot first
+            parallel.uncover(index);
+            scanned.uncover(index);
+            engine.reveal(parallel, x, y);
+            scanline.reveal(scanned, x, y);
+            for (int i = 0; i < size; i++) {
+                assertEquals("dot " + i, scanned.getCell(i), parallel.getCell(i));
+            }
+            assertEquals(scanned.getNumberOfRevealed(), parallel.getNumberOfRevealed());
+            assertEquals(scanned.getNumberOfCoveredSafe(), parallel.getNumberOfCoveredSafe());
+        }
+    }
+}
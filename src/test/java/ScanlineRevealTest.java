@@ -0,0 +1,120 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of <b>ScanlineReveal</b>, the engine the other ones fall back on.
+ * A click must uncover the same dots as a plain search of the blank
+ * region: every blank dot connected to the clicked one, corners
+ * included, and the dots around them, but not the flagged dots. A
+ * flagged blank dot stays covered and still carries the region.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ScanlineRevealTest {
+
+    @Test
+    public void revealsTheSameDotsAsASearch() {
+        int[][] games = { {10, 5, 1}, {20, 12, 36}, {64, 48, 300}, {120, 80, 900}, {100, 100, 0} };
+        for (int[] game : games) {
+            for (long seed = 0; seed < 10; seed++) {
+                play(game[0], game[1], game[2], seed, 0);
+                play(game[0], game[1], game[2], seed, 20);
+            }
+        }
+    }
+
+    @Test
+    public void revealsThinBoards() {
+        for (long seed = 0; seed < 10; seed++) {
+            play(1, 60, 5, seed, 10);
+            play(60, 1, 5, seed, 10);
+            play(2, 40, 8, seed, 10);
+            play(1, 1, 0, seed, 0);
+        }
+    }
+
+    /**
+     * Clicks every covered blank dot of a board, in a random order, and
+     * checks the board after each click against the reference search
+     *
+     * @param width The width of the board
+     * @param height The height of the board
+     * @param mines The number of mines
+     * @param seed The seed of the board
+     * @param flagEvery One dot in that many is flagged, 0 for no flags
+     */
+    private static void play(int width, int height, int mines, long seed, int flagEvery) {
+        GameModel model = new GameModel(width, height, mines, seed);
+        int size = width * height;
+        int[] expected = new int[size];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int index = 0; index < size; index++) {
+            if (flagEvery > 0 && random.nextInt(flagEvery) == 0) {
+                model.toggleMineFlag(index % width, index / width);
+            }
+            expected[index] = model.getCell(index);
+        }
+
+        RevealEngine engine = new ScanlineReveal();
+        int start = random.nextInt(size);
+        for (int k = 0; k < size; k++) {
+            int index = (start + k) % size;
+            int cell = model.getCell(index);
+            if ((cell & (Board.UNCOVERED | Board.FLAGGED)) != 0
+                    || (cell & (Board.NEIGHBOURS_MASK | Board.MINED)) != 0) {
+                continue;
+            }
+            fill(expected, width, height, index);
+            engine.reveal(model, index % width, index / width);
+            for (int i = 0; i < size; i++) {
+                assertEquals("dot " + i + " after a click on " + index, expected[i], model.getCell(i));
+            }
+        }
+    }
+
+    /**
+     * The reference fill: a breadth first search of the blank dots from
+     * the clicked one, uncovering them and their neighbours unless they
+     * are flagged
+     *
+     * @param cells The packed dots of the board, changed in place
+     * @param width The width of the board
+     * @param height The height of the board
+     * @param start The index of the clicked blank dot
+     */
+    private static void fill(int[] cells, int width, int height, int start) {
+        boolean[] visited = new boolean[cells.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        visited[start] = true;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            if ((cells[index] & Board.FLAGGED) == 0) {
+                cells[index] |= Board.UNCOVERED;
+            }
+            if ((cells[index] & (Board.NEIGHBOURS_MASK | Board.MINED)) != 0) {
+                continue;
+            }
+            int x = index % width;
+            int y = index / width;
+            for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+                for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+                    int next = j * width + i;
+                    if (!visited[next] && (cells[next] & Board.UNCOVERED) == 0) {
+                        visited[next] = true;
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of <b>Solver</b>: boards are played out from a blank dot using
+ * only what the solver finds. It must never take a mine for a safe dot
+ * or a safe dot for a mine, and once it stops, a new solver looking at
+ * the whole board must not find anything it missed.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class SolverTest {
+
+    @Test
+    public void neverTakesAMineForASafeDot() {
+        SplittableRandom random = new SplittableRandom(11);
+        int games = 0;
+        for (int t = 0; t < 500; t++) {
+            int width = 9 + random.nextInt(30);
+            int height = 9 + random.nextInt(16);
+            int mines = width * height / (5 + random.nextInt(5));
+            if (play(new GameModel(width, height, mines, random.nextLong()))) {
+                games++;
+            }
+        }
+        assertTrue(games > 400);
+    }
+
+    /**
+     * Plays a board from its first blank dot, uncovering the dots the
+     * solver finds safe until it finds nothing more
+     *
+     * @param model The model of the game
+     * @return False if the board has no blank dot to start from
+     */
+    private static boolean play(GameModel model) {
+        int width = model.getWidth();
+        int height = model.getHeigth();
+        int start = -1;
+        for (int index = 0; index < width * height && start < 0; index++) {
+            if ((model.getCell(index) & (Board.NEIGHBOURS_MASK | Board.MINED)) == 0) {
+                start = index;
+            }
+        }
+        if (start < 0) {
+            return false;
+        }
+
+        RevealEngine engine = new ScanlineReveal();
+        model.takeDelta();
+        Solver solver = new Solver(model);
+        model.uncover(start);
+        engine.reveal(model, start % width, start / width);
+        solver.boardChanged(model, model.takeDelta());
+
+        while (solver.solve() > 0) {
+            IntStack mines = solver.getMines();
+            while (!mines.isEmpty()) {
+                int index = mines.popInt();
+                assertTrue("dot " + index + " taken for a mine", model.isMined(index % width, index / width));
+            }
+            IntStack safe = solver.getSafe();
+            while (!safe.isEmpty()) {
+                int index = safe.popInt();
+                int x = index % width;
+                int y = index / width;
+                assertFalse("mine " + index + " taken for a safe dot", model.isMined(x, y));
+                if (model.isCovered(x, y)) {
+                    model.uncover(index);
+                    if (model.getNeighbooringMines(x, y) == 0) {
+                        engine.reveal(model, x, y);
+                    }
+                }
+            }
+            solver.boardChanged(model, model.takeDelta());
+        }
+
+        // Looking at the whole board again must not find anything new
+        Solver fresh = new Solver(model);
+        fresh.solve();
+        assertEquals(solver.getFrontierSize(), fresh.getFrontierSize());
+        assertTrue("safe dots missed", fresh.getSafe().isEmpty());
+        IntStack mines = fresh.getMines();
+        while (!mines.isEmpty()) {
+            assertTrue("mine missed", solver.isKnownMine(mines.popInt()));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of <b>ZoneIndex</b> and <b>ZoneReveal</b>: the regions found by
+ * the runs must be the same as the ones of a plain search, and a click
+ * must uncover the same dots as <b>ScanlineReveal</b>, flags included.
+ *
+ * @author Owen Anderson
+ * Student number: 300011168
+ * Course: ITI 1121-A
+ * Assignment: 2
+ *
+ */
+
+public class ZoneRevealTest {
+
+    @Test
+    public void findsTheSameRegionsAsASearch() {
+        int[][] games = { {10, 5, 1}, {20, 12, 36}, {64, 48, 200}, {100, 100, 0}, {37, 91, 600}, {1, 50, 5}, {50, 1, 5} };
+        for (int[] game : games) {
+            for (long seed = 0; seed < 10; seed++) {
+                GameModel model = new GameModel(game[0], game[1], game[2], seed);
+                ZoneIndex zones = model.getZoneIndex();
+                assertNotNull(zones);
+                checkRegions(model, zones);
+            }
+        }
+    }
+
+    @Test
+    public void revealsTheSameDotsAsScanlineReveal() {
+        int[][] games = { {20, 12, 36}, {64, 48, 300}, {120, 80, 900}, {200, 50, 100} };
+        for (int[] game : games) {
+            for (long seed = 0; seed < 10; seed++) {
+                GameModel zoned = new GameModel(game[0], game[1], game[2], seed);
+                GameModel scanned = new GameModel(game[0], game[1], game[2], seed);
+                assertNotNull(zoned.getZoneIndex());
+                RevealEngine zone = new ZoneReveal(new ScanlineReveal());
+                RevealEngine scanline = new ScanlineReveal();
+
+                // Some flags, blank dots included, so they stay covered
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int k = 0; k < game[0] * game[1] / 20; k++) {
+                    int x = random.nextInt(game[0]);
+                    int y = random.nextInt(game[1]);
+                    if (!zoned.isFlagged(x, y)) {
+                        zoned.toggleMineFlag(x, y);
+                        scanned.toggleMineFlag(x, y);
+                    }
+                }
+
+                // Click every covered blank dot left, in a random order
+                int size = game[0] * game[1];
+                int start = random.nextInt(size);
+                for (int k = 0; k < size; k++) {
+                    int index = (start + k) % size;
+                    int x = index % game[0];
+                    int y = index / game[0];
+                    if (zoned.isCovered(x, y) && !zoned.isFlagged(x, y) && isBlank(zoned, index)) {
+                        zone.reveal(zoned, x, y);
+                        scanline.reveal(scanned, x, y);
+                        checkSameBoard(zoned, scanned);
+                    }
+                }
+                assertEquals(scanned.getNumberOfRevealed(), zoned.getNumberOfRevealed());
+                assertEquals(scanned.getNumberOfCoveredSafe(), zoned.getNumberOfCoveredSafe());
+            }
+        }
+    }
+
+    /**
+     * Labels the blank regions with a plain search and checks the index
+     * gives the same regions, and that the runs of each region are its
+     * blank dots
+     *
+     * @param model The model of the game
+     * @param zones The index of the board
+     */
+    private static void checkRegions(GameModel model, ZoneIndex zones) {
+        int width = model.getWidth();
+        int height = model.getHeigth();
+        int size = width * height;
+        int[] labels = new int[size];
+        Arrays.fill(labels, -1);
+        int[] stack = new int[size];
+        int numLabels = 0;
+        for (int start = 0; start < size; start++) {
+            if (labels[start] != -1 || !isBlank(model, start)) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = start;
+            labels[start] = numLabels;
+            while (top > 0) {
+                int index = stack[--top];
+                int x = index % width;
+                int y = index / width;
+                for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+                    for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+                        int next = j * width + i;
+                        if (labels[next] == -1 && isBlank(model, next)) {
+                            labels[next] = numLabels;
+                            stack[top++] = next;
+                        }
+                    }
+                }
+            }
+            numLabels++;
+        }
+        assertEquals(numLabels, zones.getNumberOfRegions());
+
+        // Both number the regions by their first dot
+        for (int index = 0; index < size; index++) {
+            assertEquals("region of " + index, labels[index], zones.getRegion(index));
+        }
+
+        int[] listed = new int[size];
+        for (int region = 0; region < zones.getNumberOfRegions(); region++) {
+            for (int k = zones.getRegionStart(region); k < zones.getRegionEnd(region); k++) {
+                int run = zones.getRegionRun(k);
+                int first = zones.getRunStart(run);
+                for (int index = first; index < first + zones.getRunLength(run); index++) {
+                    assertEquals("row of run " + run, first / width, index / width);
+                    assertEquals("dot " + index, region, labels[index]);
+                    listed[index]++;
+                }
+            }
+        }
+        for (int index = 0; index < size; index++) {
+            assertEquals("dot " + index, labels[index] == -1 ? 0 : 1, listed[index]);
+        }
+    }
+
+    /**
+     * Checks two models have the same dots
+     *
+     * @param expected The model of the reference
+     * @param actual The model tested
+     */
+    private static void checkSameBoard(GameModel expected, GameModel actual) {
+        for (int index = 0; index < expected.getWidth() * expected.getHeigth(); index++) {
+            assertEquals("dot " + index, expected.getCell(index), actual.getCell(index));
+        }
+        assertTrue(expected.getNumberOfRevealed() > 0);
+    }
+
+    /**
+     * Checks if a dot is blank, not mined and no mined neighbour
+     *
+     * @param model The model of the game
+     * @param index The index of the dot
+     * @return True if the dot is blank
+     */
+    private static boolean isBlank(GameModel model, int index) {
+        return (model.getCell(index) & (Board.NEIGHBOURS_MASK | Board.MINED)) == 0;
+    }
+}